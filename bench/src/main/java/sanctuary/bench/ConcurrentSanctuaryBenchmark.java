@@ -0,0 +1,112 @@
+package sanctuary.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sanctuary.ConcurrentSanctuary;
+import sanctuary.Food;
+import sanctuary.Monkey;
+import sanctuary.Sex;
+import sanctuary.Size;
+import sanctuary.Species;
+
+/**
+ * JMH benchmarks for one ConcurrentSanctuary shared by several intake stations, reported
+ * in operations per second. Each thread registers monkeys of its own species and moves
+ * them to their enclosure, so the benchmarks for 1, 2, 4 and 8 threads show how far
+ * moves into different enclosures scale past the shared isolation lock. The sanctuary
+ * is rebuilt for every iteration so intake does not grow it without bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentSanctuaryBenchmark {
+  private ConcurrentSanctuary sanctuary;
+  private AtomicInteger stations;
+
+  /**
+   * The intake station of one benchmark thread.
+   */
+  @State(Scope.Thread)
+  public static class Station {
+    private Species species;
+    private String prefix;
+    private int registered;
+
+    @Setup(Level.Iteration)
+    public void setUp(ConcurrentSanctuaryBenchmark benchmark) {
+      int station = benchmark.stations.getAndIncrement();
+      species = Species.values()[station % Species.values().length];
+      prefix = "Station" + station + "-";
+      registered = 0;
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    sanctuary = new ConcurrentSanctuary(1024, 0);
+    stations = new AtomicInteger();
+  }
+
+  private Monkey intake(Station station) {
+    Monkey monkey = new Monkey(station.prefix + station.registered++, station.species, Sex.FEMALE, Size.SMALL,
+            10.0, 1, Food.SEEDS, true);
+    sanctuary.addToIsolation(monkey);
+    sanctuary.moveToEnclosure(monkey);
+    return monkey;
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Monkey intakeAndMove1(Station station) {
+    return intake(station);
+  }
+
+  @Benchmark
+  @Threads(2)
+  public Monkey intakeAndMove2(Station station) {
+    return intake(station);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Monkey intakeAndMove4(Station station) {
+    return intake(station);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Monkey intakeAndMove8(Station station) {
+    return intake(station);
+  }
+
+  /**
+   * Register and move monkeys on 8 threads, with one operation in eight reading the food
+   * summary, which holds every housing lock.
+   */
+  @Benchmark
+  @Threads(8)
+  public Object intakeWithSummaries(Station station) {
+    if (station.registered % 8 == 0) {
+      station.registered++;
+      return sanctuary.foodSummary();
+    }
+    return intake(station);
+  }
+}
@@ -0,0 +1,102 @@
+package sanctuary.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import sanctuary.Food;
+import sanctuary.Monkey;
+import sanctuary.SanctuaryEvent;
+import sanctuary.SanctuaryEventBus;
+import sanctuary.Sex;
+import sanctuary.Size;
+import sanctuary.Species;
+
+/**
+ * JMH benchmarks for event delivery on the sanctuary event bus, reported in events per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+  private static final int BATCH_SIZE = 100;
+
+  @Param({"1", "16", "256"})
+  private int subscribers;
+
+  private SanctuaryEventBus bus;
+  private SanctuaryEvent[] events;
+  private Blackhole blackhole;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    this.blackhole = blackhole;
+    bus = new SanctuaryEventBus();
+    for (int i = 0; i < subscribers; i++) {
+      bus.subscribe(this::consume);
+    }
+    events = new SanctuaryEvent[BATCH_SIZE];
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      Monkey monkey = new Monkey("Monkey" + i, Species.HOWLER, Sex.MALE, Size.LARGE, 30.0, 5, Food.LEAVES, true);
+      events[i] = new SanctuaryEvent(SanctuaryEvent.Type.REGISTERED, monkey);
+    }
+  }
+
+  private void consume(List<SanctuaryEvent> delivered) {
+    blackhole.consume(delivered.size());
+  }
+
+  /**
+   * Publish events one at a time, each delivered immediately.
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void publishEach() {
+    for (SanctuaryEvent event : events) {
+      bus.publish(event);
+    }
+  }
+
+  /**
+   * Publish the same events inside one batch, delivered together.
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void publishBatched() {
+    bus.batch(() -> {
+      for (SanctuaryEvent event : events) {
+        bus.publish(event);
+      }
+    });
+  }
+
+  /**
+   * Publish every event twice inside one batch, so half of them are coalesced away.
+   */
+  @Benchmark
+  @OperationsPerInvocation(2 * BATCH_SIZE)
+  public void publishBatchedWithRepeats() {
+    bus.batch(() -> {
+      for (SanctuaryEvent event : events) {
+        bus.publish(event);
+        bus.publish(event);
+      }
+    });
+  }
+}
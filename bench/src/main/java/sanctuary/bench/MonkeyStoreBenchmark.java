@@ -0,0 +1,115 @@
+package sanctuary.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sanctuary.Food;
+import sanctuary.Monkey;
+import sanctuary.MonkeyStore;
+import sanctuary.Sex;
+import sanctuary.Size;
+import sanctuary.Species;
+
+/**
+ * JMH benchmarks comparing a census held as a List of Monkey objects with the same
+ * census in a MonkeyStore. The build benchmarks allocate exactly the structure that
+ * holds the population, with the names shared from setup, so running with "-prof gc"
+ * reports its heap footprint as gc.alloc.rate.norm, in bytes per operation. The count
+ * benchmarks scan the health and species of every monkey in each layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonkeyStoreBenchmark {
+  private static final Species[] SPECIES = Species.values();
+  private static final Food[] FOODS = Food.values();
+
+  @Param({"100000", "1000000"})
+  private int population;
+
+  private String[] names;
+  private List<Monkey> monkeys;
+  private MonkeyStore store;
+
+  /**
+   * Create the names and both layouts of the census for the count benchmarks.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    names = new String[population];
+    for (int i = 0; i < population; i++) {
+      names[i] = "Monkey" + i;
+    }
+    monkeys = buildList();
+    store = buildStore();
+  }
+
+  @Benchmark
+  public List<Monkey> buildList() {
+    List<Monkey> list = new ArrayList<>(population);
+    for (int i = 0; i < population; i++) {
+      list.add(new Monkey(names[i], SPECIES[i % SPECIES.length], i % 2 == 0 ? Sex.MALE : Sex.FEMALE,
+              Size.MEDIUM, 10 + i % 40, i % 30, FOODS[i % FOODS.length], i % 3 != 0));
+    }
+    return list;
+  }
+
+  @Benchmark
+  public MonkeyStore buildStore() {
+    MonkeyStore census = new MonkeyStore(population);
+    for (int i = 0; i < population; i++) {
+      census.add(names[i], SPECIES[i % SPECIES.length], i % 2 == 0 ? Sex.MALE : Sex.FEMALE,
+              Size.MEDIUM, 10 + i % 40, i % 30, FOODS[i % FOODS.length], i % 3 != 0);
+    }
+    return census;
+  }
+
+  @Benchmark
+  public int countHealthyList() {
+    int count = 0;
+    for (Monkey monkey : monkeys) {
+      if (monkey.isHealthy()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int countHealthyStore() {
+    return store.countHealthy();
+  }
+
+  @Benchmark
+  public int countSpeciesList() {
+    int count = 0;
+    for (Monkey monkey : monkeys) {
+      if (monkey.getSpecies() == Species.HOWLER) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int countSpeciesStore() {
+    return store.countSpecies(Species.HOWLER);
+  }
+}
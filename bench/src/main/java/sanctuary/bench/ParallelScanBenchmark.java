@@ -0,0 +1,83 @@
+package sanctuary.bench;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sanctuary.Monkey;
+import sanctuary.Sanctuary;
+
+/**
+ * JMH benchmarks comparing the sequential sanctuary-wide listings and scans with the
+ * fork/join versions on pools of 8, 16 and 32 workers. A parallelism of 0 runs the
+ * sequential code, which is the baseline for the speed-up. The report cache is off,
+ * so every operation renders or scans the whole population.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelScanBenchmark {
+
+  @Param({"100000", "1000000"})
+  private int population;
+
+  @Param({"0", "8", "16", "32"})
+  private int parallelism;
+
+  private Sanctuary sanctuary;
+  private ForkJoinPool pool;
+
+  /**
+   * Build the sanctuary and a pool of the requested size.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    sanctuary = SanctuaryBenchmark.populate(population);
+    sanctuary.setReportCacheEnabled(false);
+    if (parallelism == 0) {
+      sanctuary.setParallelism(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+    } else {
+      pool = new ForkJoinPool(parallelism);
+      sanctuary.setParallelism(pool, 0);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  @Benchmark
+  public String allMonkeysList() {
+    return sanctuary.allMonkeysList();
+  }
+
+  @Benchmark
+  public String monkeysInAllEnclosures() {
+    return sanctuary.monkeysInAllEnclosures();
+  }
+
+  @Benchmark
+  public List<Monkey> healthCensus() {
+    return sanctuary.scan(Monkey::isHealthy);
+  }
+}
@@ -0,0 +1,70 @@
+package sanctuary.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sanctuary.Enclosures;
+import sanctuary.Sanctuary;
+import sanctuary.Species;
+
+/**
+ * JMH benchmarks for listing rows written to a discarding Writer, so the measured
+ * allocation is only that of the formatting. Run with "-prof gc": the rows of an
+ * enclosure should report about 0 B/op, and the list of all monkeys only the few
+ * hundred bytes of its name-order merge, whatever the population.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowFormatterBenchmark {
+
+  @Param({"1000", "100000"})
+  private int population;
+
+  private Sanctuary sanctuary;
+  private Enclosures largestEnclosure;
+  private Writer out;
+
+  /**
+   * Build the sanctuary with the report cache off, so every call formats all rows.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    sanctuary = SanctuaryBenchmark.populate(population);
+    sanctuary.setReportCacheEnabled(false);
+    largestEnclosure = sanctuary.getEnclosure(Species.DRILL);
+    out = Writer.nullWriter();
+  }
+
+  @Benchmark
+  public void enclosureRows() throws IOException {
+    largestEnclosure.writeMonkeys(out);
+  }
+
+  @Benchmark
+  public void allMonkeysRows() throws IOException {
+    sanctuary.writeAllMonkeysList(out);
+  }
+
+  @Benchmark
+  public String enclosureListMonkeys() {
+    return largestEnclosure.listMonkeys();
+  }
+}
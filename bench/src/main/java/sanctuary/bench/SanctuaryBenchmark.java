@@ -0,0 +1,114 @@
+package sanctuary.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sanctuary.Enclosures;
+import sanctuary.Food;
+import sanctuary.Monkey;
+import sanctuary.Sanctuary;
+import sanctuary.Sex;
+import sanctuary.Size;
+import sanctuary.Species;
+
+/**
+ * JMH benchmarks for the Sanctuary hot paths at population sizes from 10 to 1M.
+ * The listings are measured both with the report cache on and off, so the off case
+ * shows the cost of rendering. Run with "-prof gc" to report allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanctuaryBenchmark {
+
+  @Param({"10", "1000", "100000", "1000000"})
+  private int population;
+
+  @Param({"true", "false"})
+  private boolean reportCache;
+
+  private Sanctuary sanctuary;
+  private Enclosures largestEnclosure;
+  private String existingName;
+  private int registered;
+
+  /**
+   * Build a sanctuary holding the given number of monkeys, spread across every enclosure,
+   * with the isolation cages filled to half their capacity.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    sanctuary = populate(population);
+    sanctuary.setReportCacheEnabled(reportCache);
+    largestEnclosure = sanctuary.getEnclosure(Species.DRILL);
+    existingName = "Monkey" + (population / 2);
+    registered = 0;
+  }
+
+  /**
+   * Create a sanctuary with the given population.
+   * @param population The number of monkeys to house.
+   * @return The populated sanctuary.
+   */
+  static Sanctuary populate(int population) {
+    Sanctuary sanctuary = new Sanctuary();
+    Species[] species = Species.values();
+    Food[] foods = Food.values();
+    int isolated = Math.min(population, sanctuary.getIsolation().getCageCapacity() / 2);
+    for (int i = 0; i < population; i++) {
+      Monkey monkey = new Monkey("Monkey" + i, species[i % species.length], i % 2 == 0 ? Sex.MALE : Sex.FEMALE,
+              Size.MEDIUM, 10 + i % 40, i % 30, foods[i % foods.length], true);
+      sanctuary.addToIsolation(monkey);
+      if (i >= isolated) {
+        sanctuary.moveToEnclosure(monkey);
+      }
+    }
+    return sanctuary;
+  }
+
+  /**
+   * Register a new monkey and move it out again so isolation never fills up.
+   */
+  @Benchmark
+  public Sanctuary addToIsolationAndMove() {
+    Monkey monkey = new Monkey("New" + registered++, Species.SAKI, Sex.FEMALE, Size.SMALL, 12.0, 3, Food.NUTS, true);
+    sanctuary.addToIsolation(monkey);
+    sanctuary.moveToEnclosure(monkey);
+    return sanctuary;
+  }
+
+  @Benchmark
+  public boolean isMonkeyRegistered() {
+    return sanctuary.containsName(existingName);
+  }
+
+  @Benchmark
+  public String monkeysInAllEnclosures() {
+    return sanctuary.monkeysInAllEnclosures();
+  }
+
+  @Benchmark
+  public String allMonkeysList() {
+    return sanctuary.allMonkeysList();
+  }
+
+  @Benchmark
+  public String enclosureListMonkeys() {
+    return largestEnclosure.listMonkeys();
+  }
+}
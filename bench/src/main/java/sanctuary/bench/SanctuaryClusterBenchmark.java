@@ -0,0 +1,134 @@
+package sanctuary.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sanctuary.Food;
+import sanctuary.Monkey;
+import sanctuary.SanctuaryCluster;
+import sanctuary.Sex;
+import sanctuary.Size;
+import sanctuary.Species;
+
+/**
+ * JMH benchmarks for a sanctuary network as the number of sites grows, reported in
+ * operations per second. Intake registers monkeys by name hash from 8 threads, so more
+ * sites spread the same load over more isolation locks; listings fan out to one task
+ * per site. The network is rebuilt for every iteration so intake does not grow it
+ * without bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanctuaryClusterBenchmark {
+  private static final int CAGES_PER_SITE = 64;
+
+  @Param({"1", "2", "4", "8", "16"})
+  private int shards;
+
+  @Param({"100000"})
+  private int population;
+
+  private SanctuaryCluster cluster;
+  private ForkJoinPool pool;
+  private AtomicLong registered;
+  private List<String> sites;
+  private int transfers;
+
+  /**
+   * Build a network of the requested number of sites with the population in its enclosures.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    sites = new ArrayList<>();
+    for (int i = 0; i < shards; i++) {
+      sites.add("Site" + i);
+    }
+    cluster = new SanctuaryCluster(sites, CAGES_PER_SITE, 0);
+    pool = new ForkJoinPool(shards);
+    cluster.setPool(pool);
+    Species[] species = Species.values();
+    Food[] foods = Food.values();
+    for (int i = 0; i < population; i++) {
+      Monkey monkey = new Monkey("Monkey" + i, species[i % species.length], i % 2 == 0 ? Sex.MALE : Sex.FEMALE,
+              Size.MEDIUM, 10 + i % 40, i % 30, foods[i % foods.length], true);
+      cluster.addToIsolation(monkey);
+      cluster.moveToEnclosure(monkey);
+    }
+    registered = new AtomicLong();
+    transfers = 0;
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Register a new monkey at the site its name hashes to and move it to its enclosure.
+   */
+  @Benchmark
+  @Threads(8)
+  public Monkey intake() {
+    Monkey monkey = new Monkey("New" + registered.incrementAndGet(), Species.SAKI, Sex.FEMALE, Size.SMALL,
+            12.0, 3, Food.NUTS, true);
+    cluster.addToIsolation(monkey);
+    cluster.moveToEnclosure(monkey);
+    return monkey;
+  }
+
+  /**
+   * Transfer a monkey to the next site and settle it in the enclosure there.
+   */
+  @Benchmark
+  public Monkey transfer() {
+    String name = "Monkey" + (transfers++ % population);
+    int site = sites.indexOf(cluster.siteOf(name));
+    if (shards == 1) {
+      return cluster.findByName(name);
+    }
+    Monkey arrived = cluster.transfer(name, sites.get((site + 1) % shards));
+    cluster.moveToEnclosure(arrived);
+    return arrived;
+  }
+
+  @Benchmark
+  public boolean isMonkeyRegistered() {
+    return cluster.containsName("Monkey" + (population / 2));
+  }
+
+  @Benchmark
+  public Writer allMonkeysList() throws IOException {
+    Writer out = Writer.nullWriter();
+    cluster.writeAllMonkeysList(out);
+    return out;
+  }
+
+  @Benchmark
+  public List<Monkey> healthCensus() {
+    return cluster.scan(Monkey::isHealthy);
+  }
+}
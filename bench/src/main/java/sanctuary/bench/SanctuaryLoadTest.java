@@ -0,0 +1,223 @@
+package sanctuary.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sanctuary.ConcurrentSanctuary;
+import sanctuary.Food;
+import sanctuary.Monkey;
+import sanctuary.Sanctuary;
+import sanctuary.SanctuaryServer;
+import sanctuary.Sex;
+import sanctuary.Size;
+import sanctuary.Species;
+
+/**
+ * Load test for the HTTP API, run against a server on localhost.
+ * Each client thread sends requests back to back over a kept-alive connection for a
+ * fixed time: mostly single-monkey lookups, some counting queries, and intakes that
+ * register a monkey and move it to its enclosure. Latency percentiles and requests
+ * per second are printed per kind of request and in total.
+ * <pre>
+ *   java -cp bench/target/benchmarks.jar sanctuary.bench.SanctuaryLoadTest [threads] [seconds] [population] [url]
+ * </pre>
+ * Without a url an in-process server is started on a free loopback port and filled
+ * with the population; with one, the server at that url is loaded as it is.
+ */
+public class SanctuaryLoadTest {
+  private static final String[] KINDS = {"GET /monkeys/{name}", "GET /query/count", "POST /monkeys + move"};
+
+  private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  private final String base;
+  private final int population;
+  private final AtomicLong intakes = new AtomicLong();
+
+  SanctuaryLoadTest(String base, int population) {
+    this.base = base;
+    this.population = population;
+  }
+
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    int population = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+    SanctuaryServer server = null;
+    String base;
+    if (args.length > 3) {
+      base = args[3].replaceAll("/+$", "");
+    } else {
+      Sanctuary sanctuary = new ConcurrentSanctuary(4 * threads, 0);
+      Species[] species = Species.values();
+      Food[] foods = Food.values();
+      for (int i = 0; i < population; i++) {
+        Monkey monkey = new Monkey("Monkey" + i, species[i % species.length], i % 2 == 0 ? Sex.MALE : Sex.FEMALE,
+                Size.MEDIUM, 10 + i % 40, i % 30, foods[i % foods.length], true);
+        sanctuary.addToIsolation(monkey);
+        sanctuary.moveToEnclosure(monkey);
+      }
+      if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+      }
+      server = new SanctuaryServer(sanctuary, 0);
+      server.start();
+      base = "http://127.0.0.1:" + server.getPort();
+    }
+    try {
+      new SanctuaryLoadTest(base, population).run(threads, seconds);
+    } finally {
+      if (server != null) {
+        server.close();
+      }
+    }
+  }
+
+  /**
+   * Warm the server up for a second, then load it for the given time and print the results.
+   */
+  void run(int threads, int seconds) throws InterruptedException {
+    load(threads, Math.min(1, seconds), null);
+    Recorder[] recorders = new Recorder[threads];
+    for (int t = 0; t < threads; t++) {
+      recorders[t] = new Recorder();
+    }
+    long elapsed = load(threads, seconds, recorders);
+    System.out.printf(Locale.ROOT, "%d threads, %d s, %s%n", threads, seconds, base);
+    System.out.printf(Locale.ROOT, "%-22s %10s %10s %10s %12s %8s%n", "request", "count", "p50 ms", "p99 ms",
+            "requests/s", "errors");
+    long[][] all = new long[KINDS.length][];
+    long errors = 0;
+    for (int kind = 0; kind < KINDS.length; kind++) {
+      long[] merged = new long[0];
+      long failed = 0;
+      for (Recorder recorder : recorders) {
+        merged = concat(merged, recorder.latencies(kind));
+        failed += recorder.errors[kind];
+      }
+      all[kind] = merged;
+      errors += failed;
+      print(KINDS[kind], merged, failed, elapsed);
+    }
+    long[] total = new long[0];
+    for (long[] latencies : all) {
+      total = concat(total, latencies);
+    }
+    print("total", total, errors, elapsed);
+  }
+
+  /**
+   * Run the client threads for the given time.
+   * @return The elapsed time in nanoseconds.
+   */
+  private long load(int threads, int seconds, Recorder[] recorders) throws InterruptedException {
+    long end = System.nanoTime() + seconds * 1_000_000_000L;
+    CountDownLatch done = new CountDownLatch(threads);
+    long begin = System.nanoTime();
+    for (int t = 0; t < threads; t++) {
+      Recorder recorder = recorders == null ? new Recorder() : recorders[t];
+      Thread thread = new Thread(() -> {
+        try {
+          while (System.nanoTime() < end) {
+            request(recorder);
+          }
+        } finally {
+          done.countDown();
+        }
+      }, "load-" + t);
+      thread.start();
+    }
+    done.await();
+    return System.nanoTime() - begin;
+  }
+
+  /**
+   * Send one request of a randomly chosen kind: 80% lookups, 15% queries, 5% intakes.
+   */
+  private void request(Recorder recorder) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int roll = random.nextInt(100);
+    if (roll < 80) {
+      timed(recorder, 0, get("/monkeys/Monkey" + random.nextInt(Math.max(1, population))));
+    } else if (roll < 95) {
+      Species species = Species.values()[random.nextInt(Species.values().length)];
+      timed(recorder, 1, get("/query/count?species=" + species + "&minAge=" + random.nextInt(30)));
+    } else {
+      String name = "Intake" + intakes.incrementAndGet();
+      String body = "{\"name\":\"" + name + "\",\"species\":\"SAKI\",\"sex\":\"FEMALE\",\"size\":\"SMALL\","
+              + "\"weight\":12.0,\"age\":3,\"favoriteFood\":\"NUTS\",\"healthy\":true}";
+      if (timed(recorder, 2, post("/monkeys", body))) {
+        timed(recorder, 2, post("/monkeys/" + name + "/move", ""));
+      }
+    }
+  }
+
+  private boolean timed(Recorder recorder, int kind, HttpRequest request) {
+    long start = System.nanoTime();
+    boolean ok;
+    try {
+      int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      ok = status < 400;
+    } catch (Exception ex) {
+      ok = false;
+    }
+    recorder.record(kind, System.nanoTime() - start, ok);
+    return ok;
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(URI.create(base + path)).GET().build();
+  }
+
+  private HttpRequest post(String path, String body) {
+    return HttpRequest.newBuilder(URI.create(base + path)).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+  }
+
+  private static void print(String kind, long[] latencies, long errors, long elapsed) {
+    Arrays.sort(latencies);
+    System.out.printf(Locale.ROOT, "%-22s %10d %10.3f %10.3f %12.0f %8d%n", kind, latencies.length,
+            percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+            latencies.length / (elapsed / 1e9), errors);
+  }
+
+  private static long percentile(long[] sorted, double fraction) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+  }
+
+  private static long[] concat(long[] first, long[] second) {
+    long[] result = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  /**
+   * Latencies recorded by one client thread, per kind of request.
+   */
+  private static class Recorder {
+    private final long[][] latencies = new long[KINDS.length][1024];
+    private final int[] counts = new int[KINDS.length];
+    private final long[] errors = new long[KINDS.length];
+
+    void record(int kind, long nanos, boolean ok) {
+      if (!ok) {
+        errors[kind]++;
+      }
+      if (counts[kind] == latencies[kind].length) {
+        latencies[kind] = Arrays.copyOf(latencies[kind], counts[kind] * 2);
+      }
+      latencies[kind][counts[kind]++] = nanos;
+    }
+
+    long[] latencies(int kind) {
+      return Arrays.copyOf(latencies[kind], counts[kind]);
+    }
+  }
+}
@@ -0,0 +1,411 @@
+package sanctuary;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe Sanctuary that can be shared by several intake stations.
+ * The isolation housing is guarded by its own lock and each enclosure by a
+ * read/write lock, so registrations, moves into different enclosures and
+ * listings of unchanged enclosures do not block each other.
+ * Locks are always taken in the order: reports, isolation, enclosures by species ordinal.
+ */
+public class ConcurrentSanctuary extends Sanctuary {
+  private final ReentrantLock isolationLock;
+  private final ReentrantReadWriteLock[] enclosureLocks;
+  private final ReentrantLock reportLock;
+
+  /**
+   * Constructor for creating a new thread-safe Sanctuary.
+   */
+  public ConcurrentSanctuary() {
+    this(Isolation.DEFAULT_CAGE_CAPACITY, 0);
+  }
+
+  /**
+   * Constructor for creating a new thread-safe Sanctuary with a configured isolation housing.
+   * @param isolationCapacity The number of isolation cages.
+   * @param waitingCapacity The number of monkeys that may wait for an isolation cage.
+   */
+  public ConcurrentSanctuary(int isolationCapacity, int waitingCapacity) {
+    super(isolationCapacity, waitingCapacity);
+    this.isolationLock = new ReentrantLock();
+    this.enclosureLocks = new ReentrantReadWriteLock[Species.values().length];
+    for (int i = 0; i < enclosureLocks.length; i++) {
+      enclosureLocks[i] = new ReentrantReadWriteLock();
+    }
+    this.reportLock = new ReentrantLock();
+  }
+
+  /**
+   * Add a monkey to the isolation facility.
+   * The duplicate name check, the capacity check and the admission happen
+   * atomically, so concurrent registrations can never overfill the cages.
+   * @param monkey The monkey to be added to isolation.
+   * @throws IllegalArgumentException if the name is taken or the cages are full.
+   */
+  @Override
+  public void addToIsolation(Monkey monkey) {
+    isolationLock.lock();
+    try {
+      super.addToIsolation(monkey);
+    } finally {
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * Add a batch of monkeys to the isolation facility atomically.
+   * @param monkeys The monkeys to be added to isolation.
+   * @throws IllegalArgumentException if the batch cannot be admitted as a whole.
+   */
+  @Override
+  public void addAllToIsolation(Collection<Monkey> monkeys) {
+    isolationLock.lock();
+    try {
+      super.addAllToIsolation(monkeys);
+    } finally {
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * Change the number of isolation cages while holding the isolation lock.
+   * @param capacity The new number of cages.
+   */
+  @Override
+  public void setIsolationCapacity(int capacity) {
+    isolationLock.lock();
+    try {
+      super.setIsolationCapacity(capacity);
+    } finally {
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * Change the number of waiting places while holding the isolation lock.
+   * @param capacity The new number of waiting places.
+   */
+  @Override
+  public void setWaitingCapacity(int capacity) {
+    isolationLock.lock();
+    try {
+      super.setWaitingCapacity(capacity);
+    } finally {
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * Mark a monkey as healed while holding the isolation lock. Moves check health
+   * under the same lock, so a heal is always seen by the move that follows it.
+   * @param monkey The monkey that received medical attention.
+   * @throws IllegalArgumentException if the monkey is not found.
+   */
+  @Override
+  public void healMonkey(Monkey monkey) {
+    isolationLock.lock();
+    try {
+      super.healMonkey(monkey);
+    } finally {
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * Move a monkey from isolation to the appropriate enclosure.
+   * The isolation lock and the enclosure's write lock are held together,
+   * so the monkey is never visible in both housings or in neither.
+   * @param monkey The monkey to be moved to the enclosure.
+   * @throws IllegalArgumentException if the monkey cannot be moved.
+   */
+  @Override
+  public void moveToEnclosure(Monkey monkey) {
+    if (monkey == null) {
+      throw new IllegalArgumentException("Monkey is not found!");
+    }
+    ReentrantReadWriteLock.WriteLock enclosureLock = enclosureLocks[monkey.getSpecies().ordinal()].writeLock();
+    isolationLock.lock();
+    enclosureLock.lock();
+    try {
+      super.moveToEnclosure(monkey);
+    } finally {
+      enclosureLock.unlock();
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * Place a monkey directly into its species enclosure while holding its locks.
+   * @param monkey The monkey to be restored.
+   */
+  @Override
+  void restoreToEnclosure(Monkey monkey) {
+    ReentrantReadWriteLock.WriteLock enclosureLock = enclosureLocks[monkey.getSpecies().ordinal()].writeLock();
+    isolationLock.lock();
+    enclosureLock.lock();
+    try {
+      super.restoreToEnclosure(monkey);
+    } finally {
+      enclosureLock.unlock();
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * Release a monkey while holding the isolation lock and its enclosure's write lock.
+   * @param monkey The monkey to release.
+   */
+  @Override
+  void release(Monkey monkey) {
+    if (monkey == null) {
+      throw new IllegalArgumentException("Monkey is not found!");
+    }
+    ReentrantReadWriteLock.WriteLock enclosureLock = enclosureLocks[monkey.getSpecies().ordinal()].writeLock();
+    isolationLock.lock();
+    enclosureLock.lock();
+    try {
+      super.release(monkey);
+    } finally {
+      enclosureLock.unlock();
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * List monkeys housed in an enclosure of the given species.
+   * @param species The species of the enclosure for which to produce the list.
+   * @return A formatted string containing monkeys' name, sex, and favorite food.
+   */
+  @Override
+  public String monkeysInOneEnclosure(Species species) {
+    ReentrantReadWriteLock.ReadLock enclosureLock = enclosureLocks[species.ordinal()].readLock();
+    reportLock.lock();
+    enclosureLock.lock();
+    try {
+      return super.monkeysInOneEnclosure(species);
+    } finally {
+      enclosureLock.unlock();
+      reportLock.unlock();
+    }
+  }
+
+  /**
+   * List all the monkeys currently housed in each enclosure.
+   * @return A formatted string containing monkeys' name, sex, and favorite food.
+   */
+  @Override
+  public String monkeysInAllEnclosures() {
+    reportLock.lock();
+    lockAllEnclosures();
+    try {
+      return super.monkeysInAllEnclosures();
+    } finally {
+      unlockAllEnclosures();
+      reportLock.unlock();
+    }
+  }
+
+  /**
+   * List all the monkeys housed in the entire sanctuary, sorted by name.
+   * @return A formatted string containing monkeys' name, sex, and favorite food.
+   */
+  @Override
+  public String allMonkeysList() {
+    reportLock.lock();
+    isolationLock.lock();
+    lockAllEnclosures();
+    try {
+      return super.allMonkeysList();
+    } finally {
+      unlockAllEnclosures();
+      isolationLock.unlock();
+      reportLock.unlock();
+    }
+  }
+
+  /**
+   * Write the list of monkeys housed in an enclosure of the given species.
+   * @param species The species of the enclosure for which to write the list.
+   * @param out Receives the list.
+   * @throws IOException if the output cannot be written.
+   */
+  @Override
+  public void writeMonkeysInOneEnclosure(Species species, Appendable out) throws IOException {
+    ReentrantReadWriteLock.ReadLock enclosureLock = enclosureLocks[species.ordinal()].readLock();
+    reportLock.lock();
+    enclosureLock.lock();
+    try {
+      super.writeMonkeysInOneEnclosure(species, out);
+    } finally {
+      enclosureLock.unlock();
+      reportLock.unlock();
+    }
+  }
+
+  /**
+   * Write the list of all the monkeys currently housed in each enclosure.
+   * @param out Receives the list.
+   * @throws IOException if the output cannot be written.
+   */
+  @Override
+  public void writeMonkeysInAllEnclosures(Appendable out) throws IOException {
+    reportLock.lock();
+    lockAllEnclosures();
+    try {
+      super.writeMonkeysInAllEnclosures(out);
+    } finally {
+      unlockAllEnclosures();
+      reportLock.unlock();
+    }
+  }
+
+  /**
+   * Write the list of all the monkeys housed in the entire sanctuary, sorted by name.
+   * @param out Receives the list.
+   * @throws IOException if the output cannot be written.
+   */
+  @Override
+  public void writeAllMonkeysList(Appendable out) throws IOException {
+    reportLock.lock();
+    isolationLock.lock();
+    lockAllEnclosures();
+    try {
+      super.writeAllMonkeysList(out);
+    } finally {
+      unlockAllEnclosures();
+      isolationLock.unlock();
+      reportLock.unlock();
+    }
+  }
+
+  /**
+   * Collect the monkeys accepted by a filter from a consistent view of every housing.
+   * @param filter The condition a monkey must meet.
+   * @return The accepted monkeys, in isolation first and then in species enclosure order.
+   */
+  @Override
+  public List<Monkey> scan(Predicate<Monkey> filter) {
+    isolationLock.lock();
+    lockAllEnclosures();
+    try {
+      return super.scan(filter);
+    } finally {
+      unlockAllEnclosures();
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * Count the monkeys in a consistent view of every housing.
+   * @return The number of monkeys in isolation and in every enclosure.
+   */
+  @Override
+  public int size() {
+    return readHousings(super::size);
+  }
+
+  /**
+   * Get a monkey by its position in a consistent view of every housing.
+   * @param index The position of the monkey, from 0 to size() - 1.
+   * @return The monkey at that position.
+   * @throws IndexOutOfBoundsException if the index is out of range.
+   */
+  @Override
+  public Monkey monkeyAt(int index) {
+    return readHousings(() -> super.monkeyAt(index));
+  }
+
+  /**
+   * Summarize the food counters of the whole sanctuary while no monkey is moving.
+   * @return The food summary of the whole sanctuary.
+   */
+  @Override
+  public FoodSummary foodSummary() {
+    return readHousings(super::foodSummary);
+  }
+
+  /**
+   * Summarize the food counters of one enclosure while holding its read lock.
+   * @param species The species of the enclosure.
+   * @return The food summary of the enclosure.
+   */
+  @Override
+  public FoodSummary foodSummary(Species species) {
+    ReentrantReadWriteLock.ReadLock enclosureLock = enclosureLocks[species.ordinal()].readLock();
+    enclosureLock.lock();
+    try {
+      return super.foodSummary(species);
+    } finally {
+      enclosureLock.unlock();
+    }
+  }
+
+  /**
+   * Run a read that spans several housings while holding the isolation lock and the
+   * read lock of every enclosure. Queries are evaluated through here.
+   * @param read The read to run.
+   * @return The result of the read.
+   */
+  @Override
+  <T> T readHousings(Supplier<T> read) {
+    isolationLock.lock();
+    lockAllEnclosures();
+    try {
+      return read.get();
+    } finally {
+      unlockAllEnclosures();
+      isolationLock.unlock();
+    }
+  }
+
+  /**
+   * Iterate over a consistent snapshot of all the monkeys in alphabetical order.
+   * The housings may keep changing while the iterator is in use.
+   * @return An iterator over every monkey in the sanctuary, ordered by name.
+   */
+  @Override
+  public Iterator<Monkey> monkeysByName() {
+    List<List<Monkey>> lists = new ArrayList<>(enclosureLocks.length + 1);
+    isolationLock.lock();
+    lockAllEnclosures();
+    try {
+      List<Monkey> isolated = new ArrayList<>(getIsolation().getMonkeys());
+      isolated.sort(Monkey.NAME_ORDER);
+      lists.add(isolated);
+      for (Enclosures enclosure : getEnclosures()) {
+        lists.add(new ArrayList<>(enclosure.getMonkeys()));
+      }
+    } finally {
+      unlockAllEnclosures();
+      isolationLock.unlock();
+    }
+    return new NameOrderIterator(lists);
+  }
+
+  /**
+   * Take the read lock of every enclosure in species order.
+   */
+  private void lockAllEnclosures() {
+    for (ReentrantReadWriteLock lock : enclosureLocks) {
+      lock.readLock().lock();
+    }
+  }
+
+  /**
+   * Release the read lock of every enclosure in reverse species order.
+   */
+  private void unlockAllEnclosures() {
+    for (int i = enclosureLocks.length - 1; i >= 0; i--) {
+      enclosureLocks[i].readLock().unlock();
+    }
+  }
+}
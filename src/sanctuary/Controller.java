@@ -1,14 +1,41 @@
 package sanctuary;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
 
 /**
- * Controller class for managing the sanctuary's operations.
+ * Controller class connecting the View to the sanctuary's operations.
+ * The operations themselves live in a SanctuaryService, which the Controller calls
+ * on a single background model thread, so the Swing event dispatch thread never
+ * blocks on it; results are handed back to the View through SwingUtilities.invokeLater.
+ * Started with "--batch", main runs a command script without any View instead.
  */
 public class Controller {
-  private Sanctuary sanctuary;
+  private SanctuaryService service;
   private View view;
+  private ExecutorService modelExecutor;
+  private MonkeyTableModel monkeyTable;
+  private AtomicBoolean tableRefreshPending;
+  private Future<?> pendingListing;
+  private int listingRequest;
 
   /**
    * Constructor to initialize the Controller with the given Sanctuary and View.
@@ -16,8 +43,23 @@ public class Controller {
    * @param view      The View object for displaying information.
    */
   public Controller(Sanctuary sanctuary, View view) {
-    this.sanctuary = sanctuary;
+    this(new SanctuaryService(sanctuary), view);
+  }
+
+  /**
+   * Constructor to initialize the Controller with a service shared with other front ends.
+   * @param service The service operating on the sanctuary.
+   * @param view    The View object for displaying information.
+   */
+  public Controller(SanctuaryService service, View view) {
+    this.service = service;
     this.view = view;
+    this.tableRefreshPending = new AtomicBoolean();
+    this.modelExecutor = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "sanctuary-model");
+      thread.setDaemon(true);
+      return thread;
+    });
     this.initView();
   }
 
@@ -30,50 +72,55 @@ public class Controller {
     view.getListEnclosureButton().addActionListener(e -> listMonkeysInAllEnclosure());
     view.getListEachEnclosureButton().addActionListener(e -> listMonkeysInEachEnclosure());
     view.getListAllMonkeysButton().addActionListener(e -> listAllMonkeys());
+    Sanctuary sanctuary = service.getSanctuary();
+    Lock readLock = service.getLock().readLock();
+    view.getMonkeysInIsolation().setModel(new IsolationComboBoxModel(sanctuary.getIsolation(), readLock));
+    monkeyTable = new MonkeyTableModel(sanctuary, readLock);
+    view.getMonkeyTable().setModel(monkeyTable);
+    view.getMonkeyTable().setRowSorter(monkeyTable.newRowSorter());
+    sanctuary.getEventBus().subscribe(events -> scheduleTableRefresh());
+  }
+
+  /**
+   * Refresh the table of monkeys on the event dispatch thread after the sanctuary changes.
+   * Changes that arrive before the refresh runs are coalesced into that one refresh.
+   */
+  private void scheduleTableRefresh() {
+    if (tableRefreshPending.compareAndSet(false, true)) {
+      SwingUtilities.invokeLater(() -> {
+        tableRefreshPending.set(false);
+        monkeyTable.refresh();
+      });
+    }
   }
 
   /**
    * Method to register a new monkey.
    */
   public void registerMonkey() {
+    Monkey newMonkey;
     try {
-      String name = view.getNameField().getText();
-      Species species = Species.valueOf((String) view.getSpeciesField().getSelectedItem());
-      String sex = (String) view.getSexField().getSelectedItem();
-      String size = (String) view.getSizeField().getSelectedItem();
-      double weight = Double.parseDouble(view.getWeightField().getText());
-      int age = Integer.parseInt(view.getAgeField().getText());
-      Food favoriteFood = Food.valueOf((String) view.getFavoriteFoodField().getSelectedItem());
-      boolean isHealthy = "Yes".equals((String) view.getIsHealthyField().getSelectedItem());
-
-      Monkey newMonkey = new Monkey(name, species, sex, size, weight, age, favoriteFood, isHealthy);
-
-      if (isMonkeyRegistered(newMonkey)) {
-        view.getDisplayArea().setText("Monkey with this name is already registered.");
-        return;
-      }
-
-      sanctuary.addToIsolation(newMonkey);
-      view.getMonkeysInIsolation().addItem(newMonkey);
-      view.getDisplayArea().setText("Monkey: " + newMonkey.getName() + " is registered successfully!");
+      newMonkey = SanctuaryService.newMonkey(view.getNameField().getText(),
+              (String) view.getSpeciesField().getSelectedItem(),
+              (String) view.getSexField().getSelectedItem(),
+              (String) view.getSizeField().getSelectedItem(),
+              view.getWeightField().getText(),
+              view.getAgeField().getText(),
+              (String) view.getFavoriteFoodField().getSelectedItem(),
+              (String) view.getIsHealthyField().getSelectedItem());
     }
     catch (Exception ex) {
-      view.getDisplayArea().setText("Error registering monkey: " + ex.getMessage());
+      view.showMessage("Error registering monkey: " + ex.getMessage());
+      return;
     }
-  }
-
 
-  /**
-   * Checks if a monkey is already registered in the sanctuary.
-   * @param newMonkey The monkey to check.
-   * @return True if the monkey is already registered, otherwise false.
-   */
-  private boolean isMonkeyRegistered(Monkey newMonkey) {
-    List<Monkey> allMonkeys = new ArrayList<>(sanctuary.getIsolation().getMonkeys());
-    for (Enclosures enclosure : sanctuary.getEnclosures()) {
-      allMonkeys.addAll(enclosure.getMonkeys());
-    }
-    return allMonkeys.stream().anyMatch(monkey -> monkey.getName().equals(newMonkey.getName()));
+    submit(() -> service.register(newMonkey), registered -> {
+      if (!registered) {
+        view.showMessage("Monkey with this name is already registered.");
+        return;
+      }
+      view.showMessage("Monkey: " + newMonkey.getName() + " is registered successfully!");
+    }, ex -> view.showMessage("Error registering monkey: " + ex.getMessage()));
   }
 
 
@@ -81,26 +128,20 @@ public class Controller {
    * Moves a selected monkey to an enclosure.
    */
   public void moveToEnclosure() {
-    try {
-      Monkey selectedMonkey = view.getSelectedMonkey();
-      sanctuary.moveToEnclosure(selectedMonkey);
-      view.getMonkeysInIsolation().removeItem(selectedMonkey);
-      view.getDisplayArea().setText("Monkey: " + selectedMonkey.getName() + " moved to enclosure successfully!");
-    } catch (Exception ex) {
-      view.getDisplayArea().setText("Error moving monkey to enclosure: " + ex.getMessage());
-    }
+    Monkey selectedMonkey = view.getSelectedMonkey();
+    submit(() -> {
+      service.moveToEnclosure(selectedMonkey);
+      return selectedMonkey;
+    }, moved -> {
+      view.showMessage("Monkey: " + moved.getName() + " moved to enclosure successfully!");
+    }, ex -> view.showMessage("Error moving monkey to enclosure: " + ex.getMessage()));
   }
 
   /**
    * Lists all monkeys in all enclosures.
    */
   private void listMonkeysInAllEnclosure() {
-    try {
-      String enclosureList = sanctuary.monkeysInAllEnclosures();
-      view.getDisplayArea().setText(enclosureList);
-    } catch (Exception ex) {
-      view.getDisplayArea().setText("Error listing monkeys in enclosures: " + ex.getMessage());
-    }
+    showListing(() -> service.monkeysInAllEnclosures(), "Error listing monkeys in enclosures: ");
   }
 
   /**
@@ -109,33 +150,201 @@ public class Controller {
   private void listMonkeysInEachEnclosure() {
     try {
       Species species = Species.valueOf((String) view.getSpeciesForEnclosureField().getSelectedItem());
-      String enclosureList = sanctuary.monkeysInOneEnclosure(species);
-      view.getDisplayArea().setText(enclosureList);
+      showListing(() -> service.monkeysInOneEnclosure(species), "Error listing monkeys in enclosure: ");
     } catch (Exception ex) {
-      view.getDisplayArea().setText("Error listing monkeys in enclosure: " + ex.getMessage());
+      view.showMessage("Error listing monkeys in enclosure: " + ex.getMessage());
     }
   }
 
   /**
-   * Lists all monkeys in the sanctuary.
+   * Lists all monkeys in the sanctuary in the table, sortable by any column.
    */
   private void listAllMonkeys() {
-    try {
-      String allMonkeysList = sanctuary.allMonkeysList();
-      view.getDisplayArea().setText(allMonkeysList);
-    } catch (Exception ex) {
-      view.getDisplayArea().setText("Error listing all monkeys: " + ex.getMessage());
+    monkeyTable.refresh();
+    view.showMonkeyTable();
+  }
+
+  /**
+   * Render a listing on the model thread and show it when it is ready.
+   * A listing that has not started yet is cancelled when a newer one is requested,
+   * and the result of a listing that was superseded while running is dropped.
+   * The View shows a progress indicator until the latest listing is displayed.
+   * @param listing Renders the listing.
+   * @param errorPrefix The message shown before the error if the listing fails.
+   */
+  private void showListing(Callable<String> listing, String errorPrefix) {
+    if (pendingListing != null) {
+      pendingListing.cancel(false);
     }
+    int request = ++listingRequest;
+    view.setBusy(true);
+    pendingListing = submit(listing, text -> {
+      if (request == listingRequest) {
+        view.setBusy(false);
+        view.showMessage(text);
+      }
+    }, ex -> {
+      if (request == listingRequest) {
+        view.setBusy(false);
+        view.showMessage(errorPrefix + ex.getMessage());
+      }
+    });
+  }
+
+  /**
+   * Run a task on the model thread and pass its result or failure back on the event dispatch thread.
+   * The service holds the write lock for changes, so the table never reads a half-changed
+   * Sanctuary, and the read lock for listings, so the table stays readable meanwhile.
+   * @param task The work to run through the service.
+   * @param onSuccess Receives the result on the event dispatch thread.
+   * @param onError Receives the failure on the event dispatch thread.
+   * @return The future of the submitted task.
+   */
+  private <T> Future<?> submit(Callable<T> task, Consumer<T> onSuccess, Consumer<Exception> onError) {
+    return modelExecutor.submit(() -> {
+      try {
+        T result = task.call();
+        SwingUtilities.invokeLater(() -> onSuccess.accept(result));
+      } catch (Exception ex) {
+        SwingUtilities.invokeLater(() -> onError.accept(ex));
+      }
+    });
   }
 
   /**
    * Main method to initialize the Controller with a View and Sanctuary.
+   * The sanctuary is restored from the snapshot and journal files named by the
+   * "sanctuary.snapshot" and "sanctuary.journal" system properties, every change
+   * is journaled, and a final snapshot is written when the window is closed or the
+   * script has run. A sanctuary that cannot be restored or saved is reported in a
+   * dialog, or on standard error in batch mode, where a failed save exits with status 2.
+   * The number of isolation cages and waiting places of a new sanctuary are read from the
+   * "sanctuary.isolation.capacity" and "sanctuary.isolation.waiting" system properties;
+   * a restored sanctuary keeps the capacities it was saved with.
+   * When the "sanctuary.http.port" system property is set, the HTTP API is also served
+   * on that loopback port, sharing the View's service, with the JDK server's
+   * "sun.net.httpserver.nodelay" flag turned on unless it was given at launch.
+   * With the arguments "--batch" and a script file, or "-" for standard input, the
+   * script is run by a SanctuaryBatch without a View: listings go to standard output,
+   * failed commands and the throughput to standard error, and the exit status is 1
+   * if any command failed.
+   * With the arguments "--census" and a CSV or TSV file, the file is loaded into a
+   * MonkeyStore, without a sanctuary, and the number of monkeys, healthy monkeys and
+   * monkeys of each species is printed; rejected rows go to standard error.
    * @param args Command line arguments.
    */
   public static void main(String[] args) {
+    if (args.length > 1 && args[0].equals("--census")) {
+      System.exit(runCensus(args[1]));
+    }
+    Path snapshot = Paths.get(System.getProperty("sanctuary.snapshot", "sanctuary.snapshot"));
+    Path journal = Paths.get(System.getProperty("sanctuary.journal", "sanctuary.journal"));
+    int isolationCapacity = Integer.getInteger("sanctuary.isolation.capacity", Isolation.DEFAULT_CAGE_CAPACITY);
+    int waitingCapacity = Integer.getInteger("sanctuary.isolation.waiting", 0);
+    Sanctuary sanctuary;
+    JournaledSanctuary durable = null;
+    String restoreFailure = null;
+    try {
+      durable = new JournaledSanctuary(snapshot, journal, isolationCapacity, waitingCapacity);
+      sanctuary = durable;
+    } catch (IOException | RuntimeException ex) {
+      restoreFailure = "Could not restore sanctuary: " + ex.getMessage();
+      sanctuary = new Sanctuary(isolationCapacity, waitingCapacity);
+    }
+    SanctuaryService service = new SanctuaryService(sanctuary);
+    if (args.length > 0 && args[0].equals("--batch")) {
+      if (restoreFailure != null) {
+        System.err.println(restoreFailure);
+      }
+      int status = runBatch(service, args.length > 1 ? args[1] : "-");
+      String saveFailure = save(durable);
+      if (saveFailure != null) {
+        System.err.println(saveFailure);
+        status = 2;
+      }
+      System.exit(status);
+    }
     View view = new View();
-    Sanctuary sanctuary = new Sanctuary();
-    Controller controller = new Controller(sanctuary, view);
+    new Controller(service, view);
+    if (restoreFailure != null) {
+      view.showError(restoreFailure);
+    }
+    JournaledSanctuary saved = durable;
+    view.setCloseAction(() -> {
+      String saveFailure = save(saved);
+      if (saveFailure != null) {
+        view.showError(saveFailure);
+      }
+    });
+    Integer port = Integer.getInteger("sanctuary.http.port");
+    if (port != null) {
+      if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+      }
+      try {
+        new SanctuaryServer(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), port)).start();
+      } catch (IOException ex) {
+        System.err.println("Could not start the HTTP API: " + ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Write the final snapshot of a journaled sanctuary and close its journal.
+   * @param durable The journaled sanctuary, or null if none was restored.
+   * @return The error to report, or null if the sanctuary was saved.
+   */
+  private static String save(JournaledSanctuary durable) {
+    if (durable == null) {
+      return null;
+    }
+    try {
+      durable.close();
+      return null;
+    } catch (IOException ex) {
+      return "Could not save sanctuary: " + ex.getMessage();
+    }
   }
-}
 
+  /**
+   * Load a census file and print its totals.
+   * @param file The CSV or TSV file.
+   * @return The exit status: 0 when the file was read, 2 when it could not be.
+   */
+  private static int runCensus(String file) {
+    try {
+      MonkeyStore census = MonkeyStore.load(Paths.get(file),
+              (line, row, message) -> System.err.println("line " + line + ": " + message));
+      System.out.println("Monkeys: " + census.size());
+      System.out.println("Healthy: " + census.countHealthy());
+      for (Species species : Species.values()) {
+        System.out.println(species + ": " + census.countSpecies(species));
+      }
+      return 0;
+    } catch (IOException ex) {
+      System.err.println("Could not read census: " + ex.getMessage());
+      return 2;
+    }
+  }
+
+  /**
+   * Run a command script and report its throughput.
+   * @return The exit status: 0 if every command succeeded, 1 if any failed, 2 if the script could not be run.
+   */
+  private static int runBatch(SanctuaryService service, String script) {
+    Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    try (Reader in = script.equals("-") ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+            : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+      SanctuaryBatch.Result result = new SanctuaryBatch(service, out, System.err).run(in);
+      out.flush();
+      System.err.println(result);
+      return result.getFailures() == 0 ? 0 : 1;
+    } catch (IOException ex) {
+      System.err.println("Could not run script: " + ex.getMessage());
+      return 2;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return 2;
+    }
+  }
+}
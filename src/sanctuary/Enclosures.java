@@ -1,16 +1,21 @@
 package sanctuary;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Class representing an enclosure for a specific species of monkeys in the sanctuary.
+ * Monkeys are kept in alphabetical order by name as they are added.
  */
 public class Enclosures implements EnclosuresHousing {
 
   private List<Monkey> monkeys;
+  private List<Monkey> monkeysView;
   private Species speciesType;
+  private long version;
 
   /**
    * Constructor for creating a new Enclosure for a specific monkey species.
@@ -18,6 +23,7 @@ public class Enclosures implements EnclosuresHousing {
    */
   public Enclosures(Species speciesType){
     this.monkeys = new ArrayList<>();
+    this.monkeysView = Collections.unmodifiableList(this.monkeys);
     this.speciesType = speciesType;
   }
 
@@ -32,6 +38,8 @@ public class Enclosures implements EnclosuresHousing {
 
   /**
    * Add a monkey to the enclosure if it belongs to the appropriate species.
+   * The monkey is appended when it sorts last, as when restoring a saved enclosure,
+   * and otherwise inserted at its position by name, found with a binary search.
    * The monkey's status will be updated to ENCLOSURE.
    * @param monkey The monkey to be added to the enclosure.
    */
@@ -39,35 +47,77 @@ public class Enclosures implements EnclosuresHousing {
   public void addMonkey(Monkey monkey) {
     if(monkey.getSpecies().equals(this.speciesType)){
       if(monkey.isHealthy()){
-        this.monkeys.add(monkey);
+        int last = this.monkeys.size() - 1;
+        if (last < 0 || Monkey.NAME_ORDER.compare(this.monkeys.get(last), monkey) <= 0) {
+          this.monkeys.add(monkey);
+        } else {
+          int index = Collections.binarySearch(this.monkeys, monkey, Monkey.NAME_ORDER);
+          this.monkeys.add(index < 0 ? -index - 1 : index + 1, monkey);
+        }
+        this.version++;
         monkey.setStatus(Status.ENCLOSURE);
       }
     }
   }
 
   /**
-   * Get the list of monkeys currently in the enclosure.
-   * @return A list of monkeys in the enclosure.
+   * Remove a monkey from the enclosure, found with a binary search by name.
+   * @param monkey The monkey to be removed.
+   * @return True if the monkey was in the enclosure.
+   */
+  public boolean removeMonkey(Monkey monkey) {
+    int index = Collections.binarySearch(this.monkeys, monkey, Monkey.NAME_ORDER);
+    if (index < 0 || this.monkeys.get(index) != monkey) {
+      return false;
+    }
+    this.monkeys.remove(index);
+    this.version++;
+    return true;
+  }
+
+  /**
+   * Get the list of monkeys currently in the enclosure, ordered by name.
+   * @return A read-only list of monkeys in the enclosure.
    */
   @Override
   public List<Monkey> getMonkeys() {
-    return this.monkeys;
+    return this.monkeysView;
   }
 
   /**
-   * Lists the monkeys currently in the enclosure.
+   * Lists the monkeys currently in the enclosure in alphabetical order.
    * @return A formatted string containing monkeys' name, sex, and favorite food.
    */
   @Override
   public String listMonkeys(){
-    this.monkeys.sort(Comparator.comparing(Monkey::getName));
     StringBuilder monkeysList = new StringBuilder();
-    for (Monkey monkey : this.monkeys) {
-      monkeysList.append("Name: ").append(monkey.getName())
-                .append(", Sex: ").append(monkey.getSex())
-                .append(", Favorite Food: ").append(monkey.getFavoriteFood())
-                .append("\n");
+    try {
+      writeMonkeys(monkeysList);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
     }
     return monkeysList.toString();
   }
+
+  /**
+   * Write the monkeys currently in the enclosure in alphabetical order.
+   * Rows are formatted without allocating and handed to the output in blocks.
+   * @param out Receives the rows.
+   * @throws IOException if the output cannot be written.
+   */
+  public void writeMonkeys(Appendable out) throws IOException {
+    RowFormatter rows = RowFormatter.forThread();
+    for (Monkey monkey : this.monkeys) {
+      rows.enclosureRow(out, monkey);
+    }
+    rows.flush(out);
+  }
+
+  /**
+   * Get the version of the enclosure, which changes whenever a monkey is added or removed.
+   * @return The current version.
+   */
+  public long getVersion() {
+    return this.version;
+  }
 }
@@ -0,0 +1,133 @@
+package sanctuary;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counts and total body weight of monkeys per favorite food, kept for the
+ * isolation cages, the isolation waiting queue, all enclosures together and each
+ * enclosure on its own. The sanctuary updates them as monkeys are registered,
+ * moved and released, so a summary is read from the counters without looking
+ * at any monkey.
+ * Counters are adders, so concurrent updates do not contend on a lock.
+ */
+class FoodAggregates {
+  static final int ISOLATION = 0;
+  static final int ENCLOSURE = 1;
+  static final int WAITING = 2;
+  private static final int FIRST_SPECIES = 3;
+
+  private final LongAdder[][] counts;
+  private final DoubleAdder[][] weights;
+
+  /**
+   * Constructor for creating empty aggregates.
+   */
+  FoodAggregates() {
+    int groups = FIRST_SPECIES + Species.values().length;
+    int foods = Food.values().length;
+    this.counts = new LongAdder[groups][foods];
+    this.weights = new DoubleAdder[groups][foods];
+    for (int group = 0; group < groups; group++) {
+      for (int food = 0; food < foods; food++) {
+        counts[group][food] = new LongAdder();
+        weights[group][food] = new DoubleAdder();
+      }
+    }
+  }
+
+  /**
+   * Count a monkey that was registered into isolation or its waiting queue.
+   * @param monkey The registered monkey.
+   */
+  void registered(Monkey monkey) {
+    add(monkey.getStatus() == Status.ISOLATION ? ISOLATION : WAITING, monkey, 1);
+  }
+
+  /**
+   * Move a monkey's count from the waiting queue to the isolation cages.
+   * @param monkey The monkey admitted to a cage.
+   */
+  void admitted(Monkey monkey) {
+    add(ISOLATION, monkey, 1);
+    add(WAITING, monkey, -1);
+  }
+
+  /**
+   * Move a monkey's count from the isolation cages to its enclosure.
+   * @param monkey The monkey moved to its enclosure.
+   */
+  void moved(Monkey monkey) {
+    restored(monkey);
+    add(ISOLATION, monkey, -1);
+  }
+
+  /**
+   * Count a monkey placed directly into its enclosure.
+   * @param monkey The restored monkey.
+   */
+  void restored(Monkey monkey) {
+    add(ENCLOSURE, monkey, 1);
+    add(FIRST_SPECIES + monkey.getSpecies().ordinal(), monkey, 1);
+  }
+
+  /**
+   * Take a released monkey's count off the housing it left.
+   * @param monkey The released monkey.
+   * @param status The monkey's status before it was released.
+   */
+  void released(Monkey monkey, Status status) {
+    if (status == Status.ENCLOSURE) {
+      add(ENCLOSURE, monkey, -1);
+      add(FIRST_SPECIES + monkey.getSpecies().ordinal(), monkey, -1);
+    } else {
+      add(status == Status.ISOLATION ? ISOLATION : WAITING, monkey, -1);
+    }
+  }
+
+  /**
+   * Get the number of monkeys in a group that favor a food.
+   * @param group ISOLATION, ENCLOSURE or WAITING.
+   * @param food The favorite food.
+   * @return The number of monkeys.
+   */
+  long count(int group, Food food) {
+    return counts[group][food.ordinal()].sum();
+  }
+
+  /**
+   * Get the total weight of monkeys in a group that favor a food.
+   * @param group ISOLATION, ENCLOSURE or WAITING.
+   * @param food The favorite food.
+   * @return The total weight.
+   */
+  double weight(int group, Food food) {
+    return weights[group][food.ordinal()].sum();
+  }
+
+  /**
+   * Get the number of monkeys in one enclosure that favor a food.
+   * @param species The species of the enclosure.
+   * @param food The favorite food.
+   * @return The number of monkeys.
+   */
+  long count(Species species, Food food) {
+    return count(FIRST_SPECIES + species.ordinal(), food);
+  }
+
+  /**
+   * Get the total weight of monkeys in one enclosure that favor a food.
+   * @param species The species of the enclosure.
+   * @param food The favorite food.
+   * @return The total weight.
+   */
+  double weight(Species species, Food food) {
+    return weight(FIRST_SPECIES + species.ordinal(), food);
+  }
+
+  private void add(int group, Monkey monkey, int sign) {
+    int food = monkey.getFavoriteFood().ordinal();
+    counts[group][food].add(sign);
+    weights[group][food].add(sign * monkey.getWeight());
+  }
+}
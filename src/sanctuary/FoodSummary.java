@@ -0,0 +1,115 @@
+package sanctuary;
+
+import java.util.Locale;
+
+/**
+ * Table of how many monkeys favor each food and their total body weight,
+ * split by housing status, for ordering kitchen supplies.
+ * A summary is a fixed copy of the sanctuary's running food counters at the time
+ * it was taken, built in time proportional to the number of foods.
+ */
+public class FoodSummary {
+  private final long[][] counts;
+  private final double[][] weights;
+
+  /**
+   * Constructor for copying the counters of the sanctuary or of one enclosure.
+   * @param aggregates The running food counters.
+   * @param species The enclosure to summarize, or null for the whole sanctuary.
+   */
+  FoodSummary(FoodAggregates aggregates, Species species) {
+    int foods = Food.values().length;
+    this.counts = new long[3][foods];
+    this.weights = new double[3][foods];
+    for (Food food : Food.values()) {
+      int column = food.ordinal();
+      if (species != null) {
+        set(FoodAggregates.ENCLOSURE, column, aggregates.count(species, food), aggregates.weight(species, food));
+        continue;
+      }
+      for (int group : new int[] {FoodAggregates.ISOLATION, FoodAggregates.ENCLOSURE, FoodAggregates.WAITING}) {
+        set(group, column, aggregates.count(group, food), aggregates.weight(group, food));
+      }
+    }
+  }
+
+  /**
+   * Get the number of monkeys with a housing status that favor a food.
+   * @param food The favorite food.
+   * @param status The housing status.
+   * @return The number of monkeys.
+   */
+  public long getCount(Food food, Status status) {
+    return counts[group(status)][food.ordinal()];
+  }
+
+  /**
+   * Get the total weight of monkeys with a housing status that favor a food.
+   * @param food The favorite food.
+   * @param status The housing status.
+   * @return The total weight.
+   */
+  public double getWeight(Food food, Status status) {
+    return weights[group(status)][food.ordinal()];
+  }
+
+  /**
+   * Get the number of monkeys that favor a food, whatever their housing.
+   * @param food The favorite food.
+   * @return The number of monkeys.
+   */
+  public long getCount(Food food) {
+    long count = 0;
+    for (long[] group : counts) {
+      count += group[food.ordinal()];
+    }
+    return count;
+  }
+
+  /**
+   * Get the total weight of monkeys that favor a food, whatever their housing.
+   * @param food The favorite food.
+   * @return The total weight.
+   */
+  public double getWeight(Food food) {
+    double weight = 0;
+    for (double[] group : weights) {
+      weight += group[food.ordinal()];
+    }
+    return weight;
+  }
+
+  /**
+   * toString method to represent the summary as a table, one line per food.
+   * @return A string with the count and total weight of each food per housing.
+   */
+  @Override
+  public String toString() {
+    StringBuilder table = new StringBuilder("Food, Isolation, Enclosure, Waiting, Total Weight\n");
+    for (Food food : Food.values()) {
+      table.append(food)
+              .append(", ").append(getCount(food, Status.ISOLATION))
+              .append(", ").append(getCount(food, Status.ENCLOSURE))
+              .append(", ").append(getCount(food, Status.WAITING))
+              .append(", ").append(String.format(Locale.ROOT, "%.2f", getWeight(food)))
+              .append("\n");
+    }
+    return table.toString();
+  }
+
+  /**
+   * Store one cell, clearing the rounding left in the weight of an emptied group.
+   */
+  private void set(int group, int food, long count, double weight) {
+    counts[group][food] = count;
+    weights[group][food] = count == 0 ? 0 : weight;
+  }
+
+  private static int group(Status status) {
+    switch (status) {
+      case ISOLATION: return FoodAggregates.ISOLATION;
+      case ENCLOSURE: return FoodAggregates.ENCLOSURE;
+      default: return FoodAggregates.WAITING;
+    }
+  }
+}
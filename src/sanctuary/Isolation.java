@@ -1,60 +1,269 @@
 package sanctuary;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Class representing the isolation housing for monkeys in the sanctuary.
+ * Cages are numbered slots tracked in a bitset, and each monkey's cage and position
+ * in the list are indexed, so admitting, releasing, finding a monkey's cage and
+ * checking for duplicates all take constant time. When every cage is taken, new
+ * monkeys wait in a bounded queue and are admitted as soon as a cage frees up.
  */
 public class Isolation implements IsolationHousing {
+  /**
+   * The number of cages used when no capacity is configured.
+   */
+  public static final int DEFAULT_CAGE_CAPACITY = 20;
+
   private List<Monkey> monkeys;
-  private int cageCapacity = 20;
+  private List<Monkey> monkeysView;
+  private Map<Monkey, Integer> positions;
+  private Map<Monkey, Integer> cages;
+  private BitSet occupiedCages;
+  private Set<Monkey> waiting;
+  private Collection<Monkey> waitingView;
+  private List<IsolationListener> listeners;
+  private int cageCapacity;
+  private int waitingCapacity;
+  private long version;
 
   /**
-   * Constructor for creating a new Isolation housing.
+   * Constructor for creating a new Isolation housing with the default number of cages
+   * and no waiting queue.
    * Initializes an empty list of monkeys in isolation.
    */
   public Isolation() {
+    this(DEFAULT_CAGE_CAPACITY, 0);
+  }
+
+  /**
+   * Constructor for creating a new Isolation housing.
+   * @param cageCapacity The number of cages.
+   * @param waitingCapacity The number of monkeys that may wait for a cage when all are taken.
+   * @throws IllegalArgumentException if a capacity is negative.
+   */
+  public Isolation(int cageCapacity, int waitingCapacity) {
+    if (cageCapacity < 0 || waitingCapacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative");
+    }
     this.monkeys = new ArrayList<>();
+    this.monkeysView = Collections.unmodifiableList(this.monkeys);
+    this.positions = new HashMap<>();
+    this.cages = new HashMap<>();
+    this.occupiedCages = new BitSet(cageCapacity);
+    this.waiting = new LinkedHashSet<>();
+    this.waitingView = Collections.unmodifiableCollection(this.waiting);
+    this.listeners = new ArrayList<>();
+    this.cageCapacity = cageCapacity;
+    this.waitingCapacity = waitingCapacity;
   }
 
   /**
    * Add a monkey to the isolation housing.
+   * If every cage is taken the monkey joins the waiting queue instead, with the
+   * WAITING status, and is admitted once a cage frees up.
    * @param monkey The monkey to be added.
-   * @throws IllegalArgumentException if the isolation housing is already at full capacity.
+   * @throws IllegalArgumentException if the cages and the waiting queue are all full.
    * @throws IllegalArgumentException if the monkey already added in the isolation.
    */
   @Override
   public void addMonkey(Monkey monkey) {
-    if (this.monkeys.size() >= cageCapacity) {
-      throw new IllegalArgumentException("Cages in the Isolation are full");
-    }
-    if(this.monkeys.contains(monkey)){
+    if(this.positions.containsKey(monkey) || this.waiting.contains(monkey)){
       throw new IllegalArgumentException("Monkey is already added!");
     }
-    this.monkeys.add(monkey);
-    monkey.setStatus(Status.ISOLATION);
+    if (this.monkeys.size() >= cageCapacity) {
+      if (this.waiting.size() >= waitingCapacity) {
+        throw new IllegalArgumentException("Cages in the Isolation are full");
+      }
+      this.waiting.add(monkey);
+      monkey.setStatus(Status.WAITING);
+      return;
+    }
+    admit(monkey);
   }
 
   /**
-   * Remove a monkey from the isolation housing.
+   * Remove a monkey from the isolation housing and free its cage.
+   * The last monkey in the list takes over the removed monkey's position,
+   * and the first waiting monkey, if any, is admitted to the freed cage.
+   * A monkey still waiting for a cage is taken off the waiting queue, healthy or not.
    * @param monkey The monkey to be removed.
-   * @throws IllegalArgumentException if the monkey is not healthy.
+   * @throws IllegalArgumentException if the monkey is in a cage and not healthy.
    */
   @Override
   public void removeMonkey(Monkey monkey) {
+    if(this.waiting.remove(monkey)){
+      return;
+    }
     if(!monkey.isHealthy()){
       throw new IllegalArgumentException("Monkey is unhealthy.");
     }
-    this.monkeys.remove(monkey);
+    Integer index = this.positions.remove(monkey);
+    if(index == null){
+      return;
+    }
+    this.occupiedCages.clear(this.cages.remove(monkey));
+    int lastIndex = this.monkeys.size() - 1;
+    Monkey last = this.monkeys.remove(lastIndex);
+    if (index != lastIndex) {
+      this.monkeys.set(index, last);
+      this.positions.put(last, index);
+    }
+    this.version++;
+    for (IsolationListener listener : this.listeners) {
+      listener.monkeyRemoved(index, lastIndex, monkey);
+    }
+    admitWaiting();
   }
 
   /**
    * Get the list of monkeys currently in the isolation housing.
-   * @return A list of monkeys in isolation.
+   * @return A read-only list of monkeys in isolation.
    */
   @Override
   public List<Monkey> getMonkeys() {
-    return this.monkeys;
+    return this.monkeysView;
+  }
+
+  /**
+   * Get the monkeys waiting for a cage, in the order they will be admitted.
+   * @return A read-only collection of waiting monkeys.
+   */
+  public Collection<Monkey> getWaitingMonkeys() {
+    return this.waitingView;
+  }
+
+  /**
+   * Check whether a monkey is in an isolation cage.
+   * @param monkey The monkey to look for.
+   * @return True if the monkey is in isolation.
+   */
+  public boolean contains(Monkey monkey) {
+    return this.positions.containsKey(monkey);
+  }
+
+  /**
+   * Get the position of a monkey in the list of monkeys in isolation.
+   * @param monkey The monkey to look for.
+   * @return The monkey's position, or -1 if it is not in isolation.
+   */
+  public int indexOf(Monkey monkey) {
+    Integer index = this.positions.get(monkey);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Get the number of the cage a monkey is housed in.
+   * @param monkey The monkey to look for.
+   * @return The cage number, from 0 to the capacity - 1, or -1 if the monkey is not in a cage.
+   */
+  public int getCage(Monkey monkey) {
+    Integer cage = this.cages.get(monkey);
+    return cage == null ? -1 : cage;
+  }
+
+  /**
+   * Register a listener to be told when monkeys enter or leave isolation.
+   * @param listener The listener to add.
+   */
+  public void addListener(IsolationListener listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Stop telling a listener about changes to isolation.
+   * @param listener The listener to remove.
+   */
+  public void removeListener(IsolationListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * Get the version of the isolation housing, which changes whenever a monkey is added or removed.
+   * @return The current version.
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Get the number of cages in the isolation housing.
+   * @return The cage capacity.
+   */
+  public int getCageCapacity() {
+    return this.cageCapacity;
+  }
+
+  /**
+   * Change the number of cages. Growing admits waiting monkeys into the new cages.
+   * Cages can only be removed from the end, and only while they are empty.
+   * @param cageCapacity The new number of cages.
+   * @throws IllegalArgumentException if an occupied cage would be removed.
+   */
+  public void setCageCapacity(int cageCapacity) {
+    if (cageCapacity < this.occupiedCages.length()) {
+      throw new IllegalArgumentException("Cannot remove occupied cages");
+    }
+    this.cageCapacity = cageCapacity;
+    admitWaiting();
+  }
+
+  /**
+   * Get the number of monkeys that may wait for a cage.
+   * @return The waiting queue capacity.
+   */
+  public int getWaitingCapacity() {
+    return this.waitingCapacity;
+  }
+
+  /**
+   * Change the number of monkeys that may wait for a cage.
+   * @param waitingCapacity The new waiting queue capacity.
+   * @throws IllegalArgumentException if fewer places than waiting monkeys are requested.
+   */
+  public void setWaitingCapacity(int waitingCapacity) {
+    if (waitingCapacity < this.waiting.size()) {
+      throw new IllegalArgumentException("Cannot drop waiting monkeys");
+    }
+    this.waitingCapacity = waitingCapacity;
+  }
+
+  /**
+   * Put a monkey into the lowest free cage.
+   * @param monkey The monkey to admit.
+   */
+  private void admit(Monkey monkey) {
+    int cage = this.occupiedCages.nextClearBit(0);
+    this.occupiedCages.set(cage);
+    this.cages.put(monkey, cage);
+    int index = this.monkeys.size();
+    this.monkeys.add(monkey);
+    this.positions.put(monkey, index);
+    this.version++;
+    monkey.setStatus(Status.ISOLATION);
+    for (IsolationListener listener : this.listeners) {
+      listener.monkeyAdded(index, monkey);
+    }
+  }
+
+  /**
+   * Admit waiting monkeys, in order, while there are free cages.
+   */
+  private void admitWaiting() {
+    Iterator<Monkey> queue = this.waiting.iterator();
+    while (queue.hasNext() && this.monkeys.size() < this.cageCapacity) {
+      Monkey monkey = queue.next();
+      queue.remove();
+      admit(monkey);
+    }
   }
 }
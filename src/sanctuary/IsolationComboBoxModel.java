@@ -0,0 +1,103 @@
+package sanctuary;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Combo box model bound directly to the isolation housing.
+ * It listens for monkeys entering and leaving isolation and fires a ListDataEvent
+ * for just the positions that changed, so each update costs O(1) however many
+ * cages there are. Changes made off the event dispatch thread are passed to it in order.
+ */
+public class IsolationComboBoxModel extends AbstractListModel<Monkey>
+        implements ComboBoxModel<Monkey>, IsolationListener {
+  private static final long serialVersionUID = 1L;
+
+  private Isolation isolation;
+  private Lock readLock;
+  private int size;
+  private Object selectedItem;
+
+  /**
+   * Constructor for creating a model that follows the given isolation housing.
+   * @param isolation The isolation housing to show.
+   * @param readLock The lock that keeps the isolation from changing while it is read.
+   */
+  public IsolationComboBoxModel(Isolation isolation, Lock readLock) {
+    this.isolation = isolation;
+    this.readLock = readLock;
+    readLock.lock();
+    try {
+      this.size = isolation.getMonkeys().size();
+      isolation.addListener(this);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public void monkeyAdded(int index, Monkey monkey) {
+    onEventThread(() -> {
+      size++;
+      fireIntervalAdded(this, index, index);
+    });
+  }
+
+  @Override
+  public void monkeyRemoved(int index, int lastIndex, Monkey monkey) {
+    onEventThread(() -> {
+      size--;
+      if (index != lastIndex) {
+        fireContentsChanged(this, index, index);
+      }
+      fireIntervalRemoved(this, lastIndex, lastIndex);
+      if (monkey == selectedItem) {
+        setSelectedItem(null);
+      }
+    });
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  public Monkey getElementAt(int index) {
+    readLock.lock();
+    try {
+      List<Monkey> monkeys = isolation.getMonkeys();
+      return index < monkeys.size() ? monkeys.get(index) : null;
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public void setSelectedItem(Object item) {
+    if (item != selectedItem) {
+      selectedItem = item;
+      fireContentsChanged(this, -1, -1);
+    }
+  }
+
+  @Override
+  public Object getSelectedItem() {
+    return selectedItem;
+  }
+
+  /**
+   * Run an update on the event dispatch thread, immediately if already on it.
+   * @param update The update to run.
+   */
+  private void onEventThread(Runnable update) {
+    if (SwingUtilities.isEventDispatchThread()) {
+      update.run();
+    } else {
+      SwingUtilities.invokeLater(update);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package sanctuary;
+
+/**
+ * Interface for objects that want to be told when monkeys enter or leave isolation.
+ * Positions are the indexes into the isolation's list of monkeys.
+ */
+public interface IsolationListener {
+
+  /**
+   * Called after a monkey is added to the end of the isolation list.
+   * @param index The position of the new monkey.
+   * @param monkey The monkey that was added.
+   */
+  void monkeyAdded(int index, Monkey monkey);
+
+  /**
+   * Called after a monkey is removed from isolation.
+   * The last monkey in the list is moved into the freed position, so only the
+   * removed position changes and the last position disappears.
+   * @param index The position the monkey was removed from.
+   * @param lastIndex The former last position, which no longer exists.
+   * @param monkey The monkey that was removed.
+   */
+  void monkeyRemoved(int index, int lastIndex, Monkey monkey);
+}
@@ -0,0 +1,246 @@
+package sanctuary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sanctuary whose mutations are durable.
+ * On start-up the last snapshot is restored and the journal replayed on top of it,
+ * including the isolation capacities they recorded; the capacities given to the
+ * constructor only apply to a sanctuary with no saved state.
+ * Every registration, move, heal and capacity change is then appended to the journal
+ * before it is applied, so a change whose record cannot be written is not made at all.
+ * A change that is rejected after its record was appended leaves the record in the
+ * journal; replay rejects it again from the same state and skips it. A background task
+ * compacts the journal into a fresh snapshot once it grows past a threshold. Each
+ * snapshot records the journal position it covers, so a restart after a snapshot was
+ * written but before the journal was truncated only replays the records that followed.
+ * A failed background compaction is kept and thrown by the next flush.
+ */
+public class JournaledSanctuary extends Sanctuary implements Closeable {
+  private static final int DEFAULT_SYNC_EVERY_RECORDS = 64;
+  private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 50;
+  private static final long DEFAULT_COMPACT_THRESHOLD_BYTES = 4L * 1024 * 1024;
+  private static final long COMPACT_CHECK_SECONDS = 30;
+
+  private final Path snapshot;
+  private final long compactThresholdBytes;
+  private final ScheduledExecutorService compactor;
+  private SanctuaryJournal journal;
+  private volatile IOException compactionFailure;
+
+  /**
+   * Constructor for opening a durable sanctuary with the default journal settings.
+   * @param snapshot The snapshot file.
+   * @param journal The journal file.
+   * @throws IOException if the snapshot or journal cannot be read.
+   */
+  public JournaledSanctuary(Path snapshot, Path journal) throws IOException {
+    this(snapshot, journal, Isolation.DEFAULT_CAGE_CAPACITY, 0);
+  }
+
+  /**
+   * Constructor for opening a durable sanctuary with a configured isolation housing
+   * and the default journal settings.
+   * @param snapshot The snapshot file.
+   * @param journal The journal file.
+   * @param isolationCapacity The number of isolation cages.
+   * @param waitingCapacity The number of monkeys that may wait for an isolation cage.
+   * @throws IOException if the snapshot or journal cannot be read.
+   */
+  public JournaledSanctuary(Path snapshot, Path journal, int isolationCapacity, int waitingCapacity)
+          throws IOException {
+    this(snapshot, journal, isolationCapacity, waitingCapacity, DEFAULT_SYNC_EVERY_RECORDS,
+            DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_COMPACT_THRESHOLD_BYTES);
+  }
+
+  /**
+   * Constructor for opening a durable sanctuary.
+   * @param snapshot The snapshot file.
+   * @param journal The journal file.
+   * @param isolationCapacity The number of isolation cages.
+   * @param waitingCapacity The number of monkeys that may wait for an isolation cage.
+   * @param syncEveryRecords The number of pending records that triggers an fsync.
+   * @param syncIntervalMillis The longest time a record waits before it is synced.
+   * @param compactThresholdBytes The journal size at which it is compacted into a snapshot.
+   * @throws IOException if the snapshot or journal cannot be read.
+   */
+  public JournaledSanctuary(Path snapshot, Path journal, int isolationCapacity, int waitingCapacity,
+                            int syncEveryRecords, long syncIntervalMillis, long compactThresholdBytes)
+          throws IOException {
+    super(isolationCapacity, waitingCapacity);
+    this.snapshot = snapshot;
+    this.compactThresholdBytes = compactThresholdBytes;
+    SanctuaryJournal.Position covered = SanctuaryJournal.Position.NONE;
+    if (Files.exists(snapshot)) {
+      covered = SanctuarySnapshot.read(snapshot, this);
+    }
+    SanctuaryJournal.replay(journal, this, covered);
+    this.journal = new SanctuaryJournal(journal, covered.getGeneration() + 1, syncEveryRecords, syncIntervalMillis);
+    if (this.journal.position().getGeneration() == 0) {
+      compact();
+    }
+    this.compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "sanctuary-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.compactor.scheduleWithFixedDelay(this::compactIfLarge,
+            COMPACT_CHECK_SECONDS, COMPACT_CHECK_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Add a monkey to the isolation facility and journal the registration.
+   * @param monkey The monkey to be added to isolation.
+   */
+  @Override
+  public synchronized void addToIsolation(Monkey monkey) {
+    if (journal != null) {
+      journal.registered(monkey);
+    }
+    super.addToIsolation(monkey);
+  }
+
+  /**
+   * Add a batch of monkeys to the isolation facility and journal each registration.
+   * @param monkeys The monkeys to be added to isolation.
+   */
+  @Override
+  public synchronized void addAllToIsolation(Collection<Monkey> monkeys) {
+    if (journal != null) {
+      checkAdmission(monkeys);
+      for (Monkey monkey : monkeys) {
+        journal.registered(monkey);
+      }
+    }
+    super.addAllToIsolation(monkeys);
+  }
+
+  /**
+   * Move a monkey to its enclosure and journal the move.
+   * @param monkey The monkey to be moved to the enclosure.
+   */
+  @Override
+  public synchronized void moveToEnclosure(Monkey monkey) {
+    if (journal != null) {
+      journal.moved(found(monkey));
+    }
+    super.moveToEnclosure(monkey);
+  }
+
+  /**
+   * Mark a monkey as healed and journal the change.
+   * @param monkey The monkey that received medical attention.
+   */
+  @Override
+  public synchronized void healMonkey(Monkey monkey) {
+    if (journal != null) {
+      journal.healed(found(monkey));
+    }
+    super.healMonkey(monkey);
+  }
+
+  /**
+   * Release a monkey from the sanctuary and journal the release.
+   * @param monkey The monkey to release.
+   */
+  @Override
+  synchronized void release(Monkey monkey) {
+    if (journal != null) {
+      journal.released(found(monkey));
+    }
+    super.release(monkey);
+  }
+
+  /**
+   * Change the number of isolation cages and journal the change.
+   * @param capacity The new number of cages.
+   */
+  @Override
+  public synchronized void setIsolationCapacity(int capacity) {
+    if (journal != null) {
+      journal.capacityChanged(capacity, getIsolation().getWaitingCapacity());
+    }
+    super.setIsolationCapacity(capacity);
+  }
+
+  /**
+   * Change the number of waiting places and journal the change.
+   * @param capacity The new number of waiting places.
+   */
+  @Override
+  public synchronized void setWaitingCapacity(int capacity) {
+    if (journal != null) {
+      journal.capacityChanged(getIsolation().getCageCapacity(), capacity);
+    }
+    super.setWaitingCapacity(capacity);
+  }
+
+  /**
+   * Write a fresh snapshot covering the whole journal and then empty the journal.
+   * @throws IOException if the snapshot or journal cannot be written.
+   */
+  public synchronized void compact() throws IOException {
+    SanctuarySnapshot.write(this, snapshot, journal.position());
+    journal.truncate();
+    compactionFailure = null;
+  }
+
+  /**
+   * Block until every mutation so far is durable.
+   * @throws IOException if the journal could not be written, or if the last background
+   *     compaction failed since the previous flush. The journal still holds every change then.
+   */
+  public void flush() throws IOException {
+    journal.flush();
+    IOException failed = compactionFailure;
+    if (failed != null) {
+      compactionFailure = null;
+      throw new IOException("Could not compact sanctuary journal: " + failed.getMessage(), failed);
+    }
+  }
+
+  /**
+   * Compact the journal, stop the background compaction and close the journal.
+   * @throws IOException if the final snapshot or journal cannot be written.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    compactor.shutdownNow();
+    try {
+      compact();
+    } finally {
+      journal.close();
+    }
+  }
+
+  /**
+   * Check that a monkey to be journaled by name exists.
+   * @throws IllegalArgumentException if the monkey is not found.
+   */
+  private static Monkey found(Monkey monkey) {
+    if (monkey == null) {
+      throw new IllegalArgumentException("Monkey is not found!");
+    }
+    return monkey;
+  }
+
+  /**
+   * Compact the journal if it has grown past the threshold.
+   */
+  private void compactIfLarge() {
+    try {
+      if (journal.size() >= compactThresholdBytes) {
+        compact();
+      }
+    } catch (IOException ex) {
+      compactionFailure = ex;
+    }
+  }
+}
@@ -1,15 +1,15 @@
 package sanctuary;
 
 public class MockSanctuary extends Sanctuary {
-  private String log = "";
+  private StringBuilder log = new StringBuilder();
 
   @Override
   public void addToIsolation(Monkey monkey) {
-    log += monkey.toString() + "\n";
+    log.append(monkey.toString()).append("\n");
     super.addToIsolation(monkey);
   }
 
   public String getLog() {
-    return log;
+    return log.toString();
   }
 }
@@ -1,14 +1,21 @@
 package sanctuary;
 
+import java.util.Comparator;
+
 /**
  * Class representing a Monkey in the sanctuary.
  * Each monkey has a name, species, sex, size, weight, age, favorite food, health condition and a housing status.
  */
 public class Monkey {
+  /**
+   * Comparator ordering monkeys alphabetically by name.
+   */
+  public static final Comparator<Monkey> NAME_ORDER = Comparator.comparing(Monkey::getName);
+
   private String name;
   private Species species;
-  private String sex;
-  private String size;
+  private Sex sex;
+  private Size size;
   private double weight;
   private int age;
   private Food favoriteFood;
@@ -27,10 +34,10 @@ public class Monkey {
    * @param isHealthy The health condition of the monkey.
    */
   public Monkey(String name, Species species,
-                String sex, String size, double weight,
+                Sex sex, Size size, double weight,
                 int age, Food favoriteFood, boolean isHealthy){
-    if(name.isEmpty() || sex.isEmpty() || size.isEmpty() ||
-            weight <= 0 || age < 0 || species == null ||
+    if(name.isEmpty() || sex == null || size == null ||
+            !Double.isFinite(weight) || weight <= 0 || age < 0 || species == null ||
             favoriteFood == null){
       throw new IllegalArgumentException("Information cannot be empty");
     }
@@ -45,6 +52,26 @@ public class Monkey {
     this.status = null;
   }
 
+  /**
+   * Constructor for creating a new Monkey from the sex and size as text,
+   * parsed with Sex.parse and Size.parse.
+   * @param name The name of the monkey.
+   * @param species The species of the monkey.
+   * @param sex The sex of the monkey, such as "Male" or "M".
+   * @param size The size of the monkey, such as "Small".
+   * @param weight The weight of the monkey.
+   * @param age The age of the monkey.
+   * @param favoriteFood The favorite food of the monkey.
+   * @param isHealthy The health condition of the monkey.
+   * @throws IllegalArgumentException if the sex or size is not recognized.
+   */
+  public Monkey(String name, Species species,
+                String sex, String size, double weight,
+                int age, Food favoriteFood, boolean isHealthy){
+    this(name, species, sex.isEmpty() ? null : Sex.parse(sex), size.isEmpty() ? null : Size.parse(size),
+            weight, age, favoriteFood, isHealthy);
+  }
+
   /**
    * Get the name of the monkey.
    * @return The name of the monkey.
@@ -57,7 +84,7 @@ public class Monkey {
    * Get the sex of the monkey.
    * @return The sex of the monkey.
    */
-  public String getSex(){
+  public Sex getSex(){
     return this.sex;
   }
 
@@ -65,7 +92,7 @@ public class Monkey {
    * Get the size of the monkey.
    * @return The size of the monkey.
    */
-  public String getSize(){
+  public Size getSize(){
     return this.size;
   }
 
@@ -131,6 +158,17 @@ public class Monkey {
     return this.isHealthy;
   }
 
+  /**
+   * Copy the monkey with its current health and housing status, so it can be read
+   * after the lock guarding the original is released.
+   * @return The copy.
+   */
+  Monkey copy() {
+    Monkey copy = new Monkey(name, species, sex, size, weight, age, favoriteFood, isHealthy);
+    copy.status = status;
+    return copy;
+  }
+
   /**
    * toString method to represent the monkey as a string.
    * @return A string representation of the monkey.
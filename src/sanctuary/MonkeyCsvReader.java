@@ -0,0 +1,183 @@
+package sanctuary;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming reader that parses monkey records from CSV or TSV input.
+ * Rows are read and converted one at a time, so memory use does not depend on the file size.
+ * Each row has the columns: name, species, sex, size, weight, age, favorite food, is healthy,
+ * with health given as yes, no, true or false.
+ * An optional first row holding the column names, such as "name,species,sex,size,weight,age,food,healthy",
+ * is skipped, as are blank lines.
+ * Fields are split on the delimiter without quoting support, and weights must be finite.
+ */
+public class MonkeyCsvReader implements Closeable {
+  private static final int COLUMNS = 8;
+  private static final String[] HEADER = {"name", "species", "sex", "size", "weight", "age", "food", "healthy"};
+
+  private BufferedReader reader;
+  private char delimiter;
+  private long lineNumber;
+
+  /**
+   * Callback notified of rows that could not be parsed.
+   */
+  public interface RowErrorHandler {
+    /**
+     * Called for each rejected row.
+     * @param lineNumber The 1-based line number of the row.
+     * @param row The raw text of the row.
+     * @param message The reason the row was rejected.
+     */
+    void onError(long lineNumber, String row, String message);
+  }
+
+  /**
+   * Constructor for creating a reader over the given input.
+   * @param reader The input to read rows from.
+   * @param delimiter The field delimiter, usually ',' or '\t'.
+   */
+  public MonkeyCsvReader(Reader reader, char delimiter) {
+    this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    this.delimiter = delimiter;
+  }
+
+  /**
+   * Open a reader for a file, using a tab delimiter for ".tsv" files and a comma otherwise.
+   * @param path The file to read.
+   * @return A reader over the file.
+   * @throws IOException if the file cannot be opened.
+   */
+  public static MonkeyCsvReader open(Path path) throws IOException {
+    char delimiter = path.toString().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+    return new MonkeyCsvReader(Files.newBufferedReader(path, StandardCharsets.UTF_8), delimiter);
+  }
+
+  /**
+   * Read every remaining row, passing parsed monkeys and rejected rows to the callbacks.
+   * @param onMonkey Receives each successfully parsed monkey.
+   * @param onError Receives each row that could not be parsed.
+   * @return The number of monkeys parsed.
+   * @throws IOException if the input cannot be read.
+   */
+  public long readAll(Consumer<Monkey> onMonkey, RowErrorHandler onError) throws IOException {
+    long parsed = 0;
+    String row;
+    while ((row = reader.readLine()) != null) {
+      lineNumber++;
+      if (row.isBlank() || (lineNumber == 1 && isHeader(row, delimiter))) {
+        continue;
+      }
+      try {
+        onMonkey.accept(parseRow(row, delimiter));
+        parsed++;
+      } catch (IllegalArgumentException ex) {
+        onError.onError(lineNumber, row, ex.getMessage());
+      }
+    }
+    return parsed;
+  }
+
+  /**
+   * Close the underlying input.
+   * @throws IOException if the input cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Check whether a row names the columns. Each field must be its column's name in any
+   * case, optionally with a prefix such as "favorite food" or "is healthy".
+   * @param row The raw text of the row.
+   * @param delimiter The field delimiter.
+   * @return True if the row is a header.
+   */
+  static boolean isHeader(String row, char delimiter) {
+    String[] fields = row.split(Pattern.quote(String.valueOf(delimiter)), -1);
+    if (fields.length != COLUMNS) {
+      return false;
+    }
+    for (int i = 0; i < COLUMNS; i++) {
+      String field = fields[i].trim().toLowerCase();
+      if (!field.equals(HEADER[i]) && !(i >= 6 && field.endsWith(" " + HEADER[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parse one row into a monkey.
+   * @param row The raw text of the row.
+   * @param delimiter The field delimiter.
+   * @return The parsed monkey.
+   * @throws IllegalArgumentException if the row is malformed.
+   */
+  static Monkey parseRow(String row, char delimiter) {
+    String[] fields = new String[COLUMNS];
+    int start = 0;
+    for (int i = 0; i < COLUMNS; i++) {
+      int end = i == COLUMNS - 1 ? row.length() : row.indexOf(delimiter, start);
+      if (end < 0) {
+        throw new IllegalArgumentException("Expected " + COLUMNS + " fields but found " + (i + 1));
+      }
+      fields[i] = row.substring(start, end).trim();
+      start = end + 1;
+    }
+    if (fields[COLUMNS - 1].indexOf(delimiter) >= 0) {
+      throw new IllegalArgumentException("Expected " + COLUMNS + " fields but found more");
+    }
+    return parseFields(fields);
+  }
+
+  /**
+   * Convert the trimmed fields of a row into a monkey.
+   * @param fields The name, species, sex, size, weight, age, favorite food and is healthy fields.
+   * @return The parsed monkey.
+   * @throws IllegalArgumentException if a field is invalid.
+   */
+  static Monkey parseFields(String... fields) {
+    try {
+      double weight = Double.parseDouble(fields[4]);
+      if (!Double.isFinite(weight)) {
+        throw new IllegalArgumentException("Invalid weight: " + fields[4]);
+      }
+      return new Monkey(fields[0],
+              Species.valueOf(fields[1].toUpperCase()),
+              Sex.parse(fields[2]),
+              Size.parse(fields[3]),
+              weight,
+              Integer.parseInt(fields[5]),
+              Food.valueOf(fields[6].toUpperCase()),
+              parseHealthy(fields[7]));
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid number: " + ex.getMessage());
+    }
+  }
+
+  /**
+   * Convert a health field into a flag.
+   * @param field "yes" or "true" for a healthy monkey, "no" or "false" otherwise, in any case.
+   * @return True if the monkey is healthy.
+   * @throws IllegalArgumentException if the field is none of these.
+   */
+  static boolean parseHealthy(String field) {
+    if ("yes".equalsIgnoreCase(field) || "true".equalsIgnoreCase(field)) {
+      return true;
+    }
+    if ("no".equalsIgnoreCase(field) || "false".equalsIgnoreCase(field)) {
+      return false;
+    }
+    throw new IllegalArgumentException("Invalid health: " + field + ". Expected yes, no, true or false.");
+  }
+}
@@ -0,0 +1,272 @@
+package sanctuary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes over every monkey registered in a sanctuary.
+ * Each monkey gets a dense id in registration order. The enum attributes and the
+ * health flag are indexed as one bitmap per value, so queries combine bitmaps instead
+ * of scanning monkeys. Weight and age take many distinct values, so they are indexed as
+ * sorted maps from value to a compact list of ids, and a range is turned into a bitmap
+ * only when it is queried. A released monkey keeps its id, which is never reused, so
+ * ids stay stable, but the index lets go of the monkey itself.
+ */
+class MonkeyIndex {
+  private final List<Monkey> monkeys = new ArrayList<>();
+  private final Map<Monkey, Integer> ids = new HashMap<>();
+  private final EnumMap<Species, BitSet> bySpecies = bitmaps(Species.class);
+  private final EnumMap<Food, BitSet> byFood = bitmaps(Food.class);
+  private final EnumMap<Sex, BitSet> bySex = bitmaps(Sex.class);
+  private final EnumMap<Size, BitSet> bySize = bitmaps(Size.class);
+  private final EnumMap<Status, BitSet> byStatus = bitmaps(Status.class);
+  private final BitSet registered = new BitSet();
+  private final BitSet healthy = new BitSet();
+  private final TreeMap<Double, IdList> byWeight = new TreeMap<>();
+  private final TreeMap<Integer, IdList> byAge = new TreeMap<>();
+
+  /**
+   * Index a newly registered monkey with its current attributes.
+   * @param monkey The monkey to index.
+   */
+  synchronized void add(Monkey monkey) {
+    int id = monkeys.size();
+    monkeys.add(monkey);
+    ids.put(monkey, id);
+    registered.set(id);
+    bySpecies.get(monkey.getSpecies()).set(id);
+    byFood.get(monkey.getFavoriteFood()).set(id);
+    bySex.get(monkey.getSex()).set(id);
+    bySize.get(monkey.getSize()).set(id);
+    byWeight.computeIfAbsent(monkey.getWeight(), weight -> new IdList()).add(id);
+    byAge.computeIfAbsent(monkey.getAge(), age -> new IdList()).add(id);
+    healthy.set(id, monkey.isHealthy());
+    setStatus(id, monkey.getStatus());
+  }
+
+  /**
+   * Drop a monkey released from the sanctuary from every index.
+   * @param monkey The released monkey.
+   */
+  synchronized void remove(Monkey monkey) {
+    Integer id = ids.remove(monkey);
+    if (id == null) {
+      return;
+    }
+    monkeys.set(id, null);
+    registered.clear(id);
+    bySpecies.get(monkey.getSpecies()).clear(id);
+    byFood.get(monkey.getFavoriteFood()).clear(id);
+    bySex.get(monkey.getSex()).clear(id);
+    bySize.get(monkey.getSize()).clear(id);
+    clear(byWeight, monkey.getWeight(), id);
+    clear(byAge, monkey.getAge(), id);
+    healthy.clear(id);
+    for (BitSet bitmap : byStatus.values()) {
+      bitmap.clear(id);
+    }
+  }
+
+  /**
+   * Re-index the housing status of a monkey after it changed housing.
+   * Monkeys that are not indexed yet are ignored.
+   * @param monkey The monkey whose status changed.
+   */
+  synchronized void statusChanged(Monkey monkey) {
+    Integer id = ids.get(monkey);
+    if (id != null) {
+      setStatus(id, monkey.getStatus());
+    }
+  }
+
+  /**
+   * Re-index the health of a monkey after it was healed.
+   * @param monkey The healed monkey.
+   */
+  synchronized void healthChanged(Monkey monkey) {
+    Integer id = ids.get(monkey);
+    if (id != null) {
+      healthy.set(id, monkey.isHealthy());
+    }
+  }
+
+  /**
+   * Get the ids of every registered monkey.
+   * @return A new bitmap of the ids.
+   */
+  synchronized BitSet all() {
+    return (BitSet) registered.clone();
+  }
+
+  /**
+   * Get the monkey with an id.
+   * @param id The id.
+   * @return The monkey, or null if it was released.
+   */
+  synchronized Monkey get(int id) {
+    return monkeys.get(id);
+  }
+
+  /**
+   * Get the ids of monkeys of any of the given species.
+   * @param values The species to match.
+   * @return A new bitmap of matching ids.
+   */
+  synchronized BitSet species(Iterable<Species> values) {
+    return union(bySpecies, values);
+  }
+
+  /**
+   * Get the ids of monkeys with any of the given favorite foods.
+   * @param values The foods to match.
+   * @return A new bitmap of matching ids.
+   */
+  synchronized BitSet foods(Iterable<Food> values) {
+    return union(byFood, values);
+  }
+
+  /**
+   * Get the ids of monkeys of any of the given sexes.
+   * @param values The sexes to match.
+   * @return A new bitmap of matching ids.
+   */
+  synchronized BitSet sexes(Iterable<Sex> values) {
+    return union(bySex, values);
+  }
+
+  /**
+   * Get the ids of monkeys of any of the given sizes.
+   * @param values The sizes to match.
+   * @return A new bitmap of matching ids.
+   */
+  synchronized BitSet sizes(Iterable<Size> values) {
+    return union(bySize, values);
+  }
+
+  /**
+   * Get the ids of monkeys with any of the given housing statuses.
+   * @param values The statuses to match.
+   * @return A new bitmap of matching ids.
+   */
+  synchronized BitSet statuses(Iterable<Status> values) {
+    return union(byStatus, values);
+  }
+
+  /**
+   * Get the ids of healthy or unhealthy monkeys.
+   * @param isHealthy True for healthy monkeys, false for unhealthy ones.
+   * @return A new bitmap of matching ids.
+   */
+  synchronized BitSet health(boolean isHealthy) {
+    BitSet result = (BitSet) healthy.clone();
+    if (!isHealthy) {
+      result.flip(0, monkeys.size());
+      result.and(registered);
+    }
+    return result;
+  }
+
+  /**
+   * Get the ids of monkeys whose weight is in a range.
+   * @param min The lowest weight, inclusive.
+   * @param max The highest weight, inclusive.
+   * @return A new bitmap of matching ids.
+   */
+  synchronized BitSet weights(double min, double max) {
+    return range(byWeight, min, max);
+  }
+
+  /**
+   * Get the ids of monkeys whose age is in a range.
+   * @param min The lowest age, inclusive.
+   * @param max The highest age, inclusive.
+   * @return A new bitmap of matching ids.
+   */
+  synchronized BitSet ages(int min, int max) {
+    return range(byAge, min, max);
+  }
+
+  private void setStatus(int id, Status status) {
+    for (BitSet bitmap : byStatus.values()) {
+      bitmap.clear(id);
+    }
+    if (status != null) {
+      byStatus.get(status).set(id);
+    }
+  }
+
+  private static <K> void clear(Map<K, IdList> sorted, K key, int id) {
+    IdList ids = sorted.get(key);
+    ids.remove(id);
+    if (ids.isEmpty()) {
+      sorted.remove(key);
+    }
+  }
+
+  private static <E extends Enum<E>> EnumMap<E, BitSet> bitmaps(Class<E> type) {
+    EnumMap<E, BitSet> bitmaps = new EnumMap<>(type);
+    for (E value : type.getEnumConstants()) {
+      bitmaps.put(value, new BitSet());
+    }
+    return bitmaps;
+  }
+
+  private static <E extends Enum<E>> BitSet union(EnumMap<E, BitSet> bitmaps, Iterable<E> values) {
+    BitSet result = new BitSet();
+    for (E value : values) {
+      result.or(bitmaps.get(value));
+    }
+    return result;
+  }
+
+  private static <K extends Comparable<K>> BitSet range(NavigableMap<K, IdList> sorted, K min, K max) {
+    BitSet result = new BitSet();
+    if (min.compareTo(max) <= 0) {
+      for (IdList ids : sorted.subMap(min, true, max, true).values()) {
+        ids.setAll(result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The ids of the monkeys sharing one weight or age, kept in ascending order.
+   * Ids are handed out in ascending order, so adding one only appends it.
+   */
+  private static class IdList {
+    private int[] ids = new int[1];
+    private int size;
+
+    void add(int id) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      ids[size++] = id;
+    }
+
+    void remove(int id) {
+      int at = Arrays.binarySearch(ids, 0, size, id);
+      if (at >= 0) {
+        System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+        size--;
+      }
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    void setAll(BitSet bitmap) {
+      for (int i = 0; i < size; i++) {
+        bitmap.set(ids[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,273 @@
+package sanctuary;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * JSON encoding of monkeys for the HTTP API.
+ * Monkeys are written field by field straight to the output, so a listing is streamed
+ * without building a string per monkey. Requests carry a single flat object, which is
+ * read into a map of field values.
+ */
+final class MonkeyJson {
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][-+]?[0-9]+)?");
+
+  private MonkeyJson() {
+  }
+
+  /**
+   * Write a monkey as a JSON object.
+   * @param out Receives the object.
+   * @param monkey The monkey to write.
+   * @throws IOException if the output cannot be written.
+   */
+  static void write(Writer out, Monkey monkey) throws IOException {
+    out.write("{\"name\":");
+    writeString(out, monkey.getName());
+    out.write(",\"species\":\"");
+    out.write(monkey.getSpecies().name());
+    out.write("\",\"sex\":\"");
+    out.write(monkey.getSex().name());
+    out.write("\",\"size\":\"");
+    out.write(monkey.getSize().name());
+    out.write("\",\"weight\":");
+    out.write(Double.toString(monkey.getWeight()));
+    out.write(",\"age\":");
+    out.write(Integer.toString(monkey.getAge()));
+    out.write(",\"favoriteFood\":\"");
+    out.write(monkey.getFavoriteFood().name());
+    out.write("\",\"healthy\":");
+    out.write(monkey.isHealthy() ? "true" : "false");
+    out.write(",\"status\":");
+    Status status = monkey.getStatus();
+    if (status == null) {
+      out.write("null");
+    } else {
+      out.write('"');
+      out.write(status.name());
+      out.write('"');
+    }
+    out.write('}');
+  }
+
+  /**
+   * Write a JSON string, escaping quotes, backslashes and control characters.
+   * @param out Receives the string.
+   * @param text The text to write.
+   * @throws IOException if the output cannot be written.
+   */
+  static void writeString(Writer out, String text) throws IOException {
+    out.write('"');
+    int start = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"' || c == '\\' || c < 0x20) {
+        out.write(text, start, i - start);
+        out.write('\\');
+        if (c == '"' || c == '\\') {
+          out.write(c);
+        } else if (c == '\n') {
+          out.write('n');
+        } else if (c == '\r') {
+          out.write('r');
+        } else if (c == '\t') {
+          out.write('t');
+        } else {
+          out.write("u00");
+          out.write(HEX[c >> 4]);
+          out.write(HEX[c & 0xF]);
+        }
+        start = i + 1;
+      }
+    }
+    out.write(text, start, text.length() - start);
+    out.write('"');
+  }
+
+  /**
+   * Create a monkey from the fields of a request.
+   * Enumerated fields accept the constant names used in responses in any case; sex
+   * and size also accept their labels.
+   * @param fields The fields read with readObject.
+   * @return The new monkey.
+   * @throws IllegalArgumentException if a field is missing or invalid.
+   */
+  static Monkey toMonkey(Map<String, String> fields) {
+    try {
+      return new Monkey(field(fields, "name"),
+              constant(Species.class, field(fields, "species")),
+              Sex.parse(field(fields, "sex")),
+              Size.parse(field(fields, "size")),
+              Double.parseDouble(field(fields, "weight")),
+              Integer.parseInt(field(fields, "age")),
+              constant(Food.class, field(fields, "favoriteFood")),
+              bool(field(fields, "healthy")));
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid number: " + ex.getMessage());
+    }
+  }
+
+  /**
+   * Read a flat JSON object whose values are strings, numbers, booleans or null.
+   * @param text The JSON text.
+   * @return The fields in order, with numbers and booleans as their text and null as null.
+   * @throws IllegalArgumentException if the text is not such an object.
+   */
+  static Map<String, String> readObject(String text) {
+    Parser parser = new Parser(text);
+    Map<String, String> fields = new LinkedHashMap<>();
+    parser.expect('{');
+    if (!parser.skip('}')) {
+      do {
+        String name = parser.string();
+        parser.expect(':');
+        fields.put(name, parser.value());
+      } while (parser.skip(','));
+      parser.expect('}');
+    }
+    parser.end();
+    return fields;
+  }
+
+  /**
+   * Parse an enum constant from its name in any case.
+   * @param type The enum class.
+   * @param name The name of the constant, such as "drill".
+   * @return The constant.
+   * @throws IllegalArgumentException if no constant has this name.
+   */
+  static <E extends Enum<E>> E constant(Class<E> type, String name) {
+    return Enum.valueOf(type, name.trim().toUpperCase(Locale.ROOT));
+  }
+
+  private static boolean bool(String value) {
+    if (!value.equals("true") && !value.equals("false")) {
+      throw new IllegalArgumentException("Invalid boolean: " + value);
+    }
+    return value.equals("true");
+  }
+
+  private static String field(Map<String, String> fields, String name) {
+    String value = fields.get(name);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing field: " + name);
+    }
+    return value;
+  }
+
+  /**
+   * Reads the tokens of a flat JSON object.
+   */
+  private static class Parser {
+    private final String text;
+    private int position;
+
+    Parser(String text) {
+      this.text = text;
+    }
+
+    void expect(char c) {
+      if (!skip(c)) {
+        throw error("Expected '" + c + "'");
+      }
+    }
+
+    boolean skip(char c) {
+      whitespace();
+      if (position < text.length() && text.charAt(position) == c) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    void end() {
+      whitespace();
+      if (position < text.length()) {
+        throw error("Unexpected content");
+      }
+    }
+
+    String value() {
+      whitespace();
+      if (position < text.length() && text.charAt(position) == '"') {
+        return string();
+      }
+      int start = position;
+      while (position < text.length() && ",}".indexOf(text.charAt(position)) < 0
+              && !Character.isWhitespace(text.charAt(position))) {
+        position++;
+      }
+      String literal = text.substring(start, position);
+      if (literal.equals("null")) {
+        return null;
+      }
+      if (!literal.equals("true") && !literal.equals("false") && !NUMBER.matcher(literal).matches()) {
+        throw error("Expected a string, number, boolean or null");
+      }
+      return literal;
+    }
+
+    String string() {
+      expect('"');
+      StringBuilder value = new StringBuilder();
+      while (position < text.length()) {
+        char c = text.charAt(position++);
+        if (c == '"') {
+          return value.toString();
+        }
+        if (c != '\\') {
+          value.append(c);
+        } else if (position < text.length()) {
+          char escaped = text.charAt(position++);
+          switch (escaped) {
+            case 'n':
+              value.append('\n');
+              break;
+            case 'r':
+              value.append('\r');
+              break;
+            case 't':
+              value.append('\t');
+              break;
+            case 'b':
+              value.append('\b');
+              break;
+            case 'f':
+              value.append('\f');
+              break;
+            case 'u':
+              if (position + 4 > text.length()) {
+                throw error("Bad escape");
+              }
+              try {
+                value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+              } catch (NumberFormatException ex) {
+                throw error("Bad escape");
+              }
+              position += 4;
+              break;
+            default:
+              value.append(escaped);
+          }
+        }
+      }
+      throw error("Unterminated string");
+    }
+
+    private void whitespace() {
+      while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+        position++;
+      }
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException("Invalid JSON at " + position + ": " + message);
+    }
+  }
+}
@@ -0,0 +1,429 @@
+package sanctuary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Column-oriented store for large populations of monkeys, such as a regional census.
+ * Each attribute is held in its own primitive array indexed by row: enum values as
+ * byte ordinals, weight as a float, age as a short and health as one bit in a packed
+ * bitset. Only the names remain objects, which keeps the heap footprint per monkey
+ * small and makes scans over one attribute cache friendly.
+ *
+ * <p>Rows are read either through the column accessors or through a {@link Row},
+ * a reusable flyweight view that can be moved from row to row without allocating.
+ * A census file is loaded with {@link #load}, which Controller.main uses for its
+ * --census summary.
+ */
+public class MonkeyStore {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final byte NO_STATUS = -1;
+  private static final Species[] SPECIES = Species.values();
+  private static final Food[] FOODS = Food.values();
+  private static final Status[] STATUSES = Status.values();
+  private static final Sex[] SEXES = Sex.values();
+  private static final Size[] SIZES = Size.values();
+
+  private String[] names;
+  private byte[] species;
+  private byte[] foods;
+  private byte[] statuses;
+  private byte[] sexes;
+  private byte[] sizes;
+  private float[] weights;
+  private short[] ages;
+  private long[] healthy;
+  private int rows;
+
+  /**
+   * Constructor for creating an empty store.
+   */
+  public MonkeyStore() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Constructor for creating an empty store sized for the given number of monkeys.
+   * @param capacity The number of monkeys to allocate room for.
+   */
+  public MonkeyStore(int capacity) {
+    int initial = Math.max(1, capacity);
+    this.names = new String[initial];
+    this.species = new byte[initial];
+    this.foods = new byte[initial];
+    this.statuses = new byte[initial];
+    this.sexes = new byte[initial];
+    this.sizes = new byte[initial];
+    this.weights = new float[initial];
+    this.ages = new short[initial];
+    this.healthy = new long[(initial + 63) >>> 6];
+  }
+
+  /**
+   * Load every monkey in a CSV or TSV file, such as a regional census, into a new store.
+   * @param path The file to read, with the columns read by MonkeyCsvReader.
+   * @param onError Receives each row that could not be parsed.
+   * @return The store holding the parsed monkeys.
+   * @throws IOException if the file cannot be read.
+   */
+  public static MonkeyStore load(Path path, MonkeyCsvReader.RowErrorHandler onError) throws IOException {
+    MonkeyStore store = new MonkeyStore();
+    try (MonkeyCsvReader reader = MonkeyCsvReader.open(path)) {
+      reader.readAll(store::add, onError);
+    }
+    return store;
+  }
+
+  /**
+   * Append a monkey to the store.
+   * @param monkey The monkey to store.
+   * @return The row the monkey was stored at.
+   * @throws IllegalArgumentException if the age does not fit in the store.
+   */
+  public int add(Monkey monkey) {
+    int row = add(monkey.getName(), monkey.getSpecies(), monkey.getSex(), monkey.getSize(), monkey.getWeight(),
+            monkey.getAge(), monkey.getFavoriteFood(), monkey.isHealthy());
+    setStatus(row, monkey.getStatus());
+    return row;
+  }
+
+  /**
+   * Append a monkey that is not housed, given its attributes, without creating a Monkey.
+   * @param name The name of the monkey.
+   * @param species The species of the monkey.
+   * @param sex The sex of the monkey.
+   * @param size The size of the monkey.
+   * @param weight The weight of the monkey.
+   * @param age The age of the monkey.
+   * @param favoriteFood The favorite food of the monkey.
+   * @param isHealthy The health condition of the monkey.
+   * @return The row the monkey was stored at.
+   * @throws IllegalArgumentException if the age does not fit in the store.
+   */
+  public int add(String name, Species species, Sex sex, Size size, double weight, int age, Food favoriteFood,
+                 boolean isHealthy) {
+    if (age > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Age is too large to store");
+    }
+    if (rows == names.length) {
+      grow();
+    }
+    int row = rows++;
+    this.names[row] = name;
+    this.species[row] = (byte) species.ordinal();
+    this.foods[row] = (byte) favoriteFood.ordinal();
+    this.statuses[row] = NO_STATUS;
+    this.sexes[row] = (byte) sex.ordinal();
+    this.sizes[row] = (byte) size.ordinal();
+    this.weights[row] = (float) weight;
+    this.ages[row] = (short) age;
+    setHealthy(row, isHealthy);
+    return row;
+  }
+
+  /**
+   * Get the number of monkeys in the store.
+   * @return The number of rows.
+   */
+  public int size() {
+    return rows;
+  }
+
+  /**
+   * Get the name of the monkey at a row.
+   * @param row The row.
+   * @return The name.
+   */
+  public String getName(int row) {
+    return names[check(row)];
+  }
+
+  /**
+   * Get the species of the monkey at a row.
+   * @param row The row.
+   * @return The species.
+   */
+  public Species getSpecies(int row) {
+    return SPECIES[species[check(row)]];
+  }
+
+  /**
+   * Get the favorite food of the monkey at a row.
+   * @param row The row.
+   * @return The favorite food.
+   */
+  public Food getFavoriteFood(int row) {
+    return FOODS[foods[check(row)]];
+  }
+
+  /**
+   * Get the housing status of the monkey at a row.
+   * @param row The row.
+   * @return The housing status, or null if the monkey is not housed.
+   */
+  public Status getStatus(int row) {
+    byte status = statuses[check(row)];
+    return status == NO_STATUS ? null : STATUSES[status];
+  }
+
+  /**
+   * Set the housing status of the monkey at a row.
+   * @param row The row.
+   * @param status The housing status, or null if the monkey is not housed.
+   */
+  public void setStatus(int row, Status status) {
+    statuses[check(row)] = status == null ? NO_STATUS : (byte) status.ordinal();
+  }
+
+  /**
+   * Get the sex of the monkey at a row.
+   * @param row The row.
+   * @return The sex.
+   */
+  public Sex getSex(int row) {
+    return SEXES[sexes[check(row)]];
+  }
+
+  /**
+   * Get the size of the monkey at a row.
+   * @param row The row.
+   * @return The size.
+   */
+  public Size getSize(int row) {
+    return SIZES[sizes[check(row)]];
+  }
+
+  /**
+   * Get the weight of the monkey at a row.
+   * @param row The row.
+   * @return The weight, stored with float precision.
+   */
+  public double getWeight(int row) {
+    return weights[check(row)];
+  }
+
+  /**
+   * Get the age of the monkey at a row.
+   * @param row The row.
+   * @return The age.
+   */
+  public int getAge(int row) {
+    return ages[check(row)];
+  }
+
+  /**
+   * Check whether the monkey at a row is healthy.
+   * @param row The row.
+   * @return True if the monkey is healthy.
+   */
+  public boolean isHealthy(int row) {
+    check(row);
+    return (healthy[row >>> 6] & (1L << row)) != 0;
+  }
+
+  /**
+   * Set whether the monkey at a row is healthy.
+   * @param row The row.
+   * @param isHealthy The health condition.
+   */
+  public void setHealthy(int row, boolean isHealthy) {
+    check(row);
+    if (isHealthy) {
+      healthy[row >>> 6] |= 1L << row;
+    } else {
+      healthy[row >>> 6] &= ~(1L << row);
+    }
+  }
+
+  /**
+   * Count the healthy monkeys by counting bits in the packed health column.
+   * @return The number of healthy monkeys.
+   */
+  public int countHealthy() {
+    int count = 0;
+    int fullWords = rows >>> 6;
+    for (int i = 0; i < fullWords; i++) {
+      count += Long.bitCount(healthy[i]);
+    }
+    if ((rows & 63) != 0) {
+      count += Long.bitCount(healthy[fullWords] & ((1L << rows) - 1));
+    }
+    return count;
+  }
+
+  /**
+   * Count the monkeys of a species by scanning the species column.
+   * @param kind The species to count.
+   * @return The number of monkeys of that species.
+   */
+  public int countSpecies(Species kind) {
+    byte ordinal = (byte) kind.ordinal();
+    int count = 0;
+    for (int i = 0; i < rows; i++) {
+      if (species[i] == ordinal) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Create a standalone Monkey with the values stored at a row.
+   * @param row The row.
+   * @return A new monkey object.
+   */
+  public Monkey toMonkey(int row) {
+    Monkey monkey = new Monkey(getName(row), getSpecies(row), getSex(row), getSize(row),
+            getWeight(row), getAge(row), getFavoriteFood(row), isHealthy(row));
+    monkey.setStatus(getStatus(row));
+    return monkey;
+  }
+
+  /**
+   * Create a flyweight view positioned before the first row.
+   * @return A reusable row view over this store.
+   */
+  public Row row() {
+    return new Row();
+  }
+
+  /**
+   * Reusable view of one row of the store, read through the same getters as Monkey.
+   * Moving the view to another row does not allocate.
+   */
+  public class Row {
+    private int index = -1;
+
+    /**
+     * Position the view on a row.
+     * @param row The row to view.
+     * @return This view.
+     */
+    public Row moveTo(int row) {
+      this.index = check(row);
+      return this;
+    }
+
+    /**
+     * Advance the view to the next row.
+     * @return True if the view now shows a row, false if it passed the last one.
+     */
+    public boolean next() {
+      if (index + 1 >= rows) {
+        return false;
+      }
+      index++;
+      return true;
+    }
+
+    /**
+     * Get the row the view is positioned on.
+     * @return The row index.
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * Get the name of the monkey in the viewed row.
+     * @return The name of the monkey.
+     */
+    public String getName() {
+      return MonkeyStore.this.getName(index);
+    }
+
+    /**
+     * Get the species of the monkey in the viewed row.
+     * @return The species of the monkey.
+     */
+    public Species getSpecies() {
+      return MonkeyStore.this.getSpecies(index);
+    }
+
+    /**
+     * Get the sex of the monkey in the viewed row.
+     * @return The sex of the monkey.
+     */
+    public Sex getSex() {
+      return MonkeyStore.this.getSex(index);
+    }
+
+    /**
+     * Get the size of the monkey in the viewed row.
+     * @return The size of the monkey.
+     */
+    public Size getSize() {
+      return MonkeyStore.this.getSize(index);
+    }
+
+    /**
+     * Get the weight of the monkey in the viewed row.
+     * @return The weight of the monkey.
+     */
+    public double getWeight() {
+      return MonkeyStore.this.getWeight(index);
+    }
+
+    /**
+     * Get the age of the monkey in the viewed row.
+     * @return The age of the monkey.
+     */
+    public int getAge() {
+      return MonkeyStore.this.getAge(index);
+    }
+
+    /**
+     * Get the favorite food of the monkey in the viewed row.
+     * @return The favorite food of the monkey.
+     */
+    public Food getFavoriteFood() {
+      return MonkeyStore.this.getFavoriteFood(index);
+    }
+
+    /**
+     * Get the housing status of the monkey in the viewed row.
+     * @return The housing status, or null if the monkey is not housed.
+     */
+    public Status getStatus() {
+      return MonkeyStore.this.getStatus(index);
+    }
+
+    /**
+     * Check whether the monkey in the viewed row is healthy.
+     * @return True if the monkey is healthy.
+     */
+    public boolean isHealthy() {
+      return MonkeyStore.this.isHealthy(index);
+    }
+  }
+
+  /**
+   * Check that a row exists.
+   * @param row The row.
+   * @return The row.
+   * @throws IndexOutOfBoundsException if the row does not exist.
+   */
+  private int check(int row) {
+    if (row < 0 || row >= rows) {
+      throw new IndexOutOfBoundsException("Row: " + row);
+    }
+    return row;
+  }
+
+  /**
+   * Grow every column by half its size.
+   */
+  private void grow() {
+    int capacity = names.length + (names.length >> 1) + 1;
+    names = Arrays.copyOf(names, capacity);
+    species = Arrays.copyOf(species, capacity);
+    foods = Arrays.copyOf(foods, capacity);
+    statuses = Arrays.copyOf(statuses, capacity);
+    sexes = Arrays.copyOf(sexes, capacity);
+    sizes = Arrays.copyOf(sizes, capacity);
+    weights = Arrays.copyOf(weights, capacity);
+    ages = Arrays.copyOf(ages, capacity);
+    healthy = Arrays.copyOf(healthy, (capacity + 63) >>> 6);
+  }
+}
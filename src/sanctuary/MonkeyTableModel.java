@@ -0,0 +1,140 @@
+package sanctuary;
+
+import java.util.Iterator;
+import java.util.concurrent.locks.Lock;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+
+/**
+ * Table model that shows every monkey in the sanctuary, one row per monkey.
+ * Monkeys in isolation come first, then each enclosure in species order with its
+ * monkeys in name order, then the monkeys waiting for an isolation cage in queue order.
+ * Rows are read on demand from the sanctuary's housings, so the table only
+ * formats the rows it paints and no copy of the population is kept.
+ * Refreshes fire ranged row events rather than a data change, so an unsorted table
+ * only repaints its rows. Updated rows may hold other monkeys or changed values, so a
+ * sorter from newRowSorter re-sorts on every refresh while a sort key is set.
+ */
+public class MonkeyTableModel extends AbstractTableModel {
+  private static final long serialVersionUID = 1L;
+  private static final String[] COLUMNS = {
+    "Name", "Species", "Sex", "Size", "Weight", "Age", "Favorite Food", "Healthy", "Housing Status"
+  };
+  private static final Class<?>[] COLUMN_CLASSES = {
+    String.class, Species.class, Sex.class, Size.class, Double.class, Integer.class,
+    Food.class, Boolean.class, Status.class
+  };
+
+  private Sanctuary sanctuary;
+  private Lock readLock;
+  private int rowCount;
+
+  /**
+   * Constructor for creating a table model over a sanctuary.
+   * @param sanctuary The sanctuary whose monkeys are shown.
+   * @param readLock The lock that keeps the sanctuary from changing while a row is read.
+   */
+  public MonkeyTableModel(Sanctuary sanctuary, Lock readLock) {
+    this.sanctuary = sanctuary;
+    this.readLock = readLock;
+    this.rowCount = rows();
+  }
+
+  /**
+   * Re-read the number of monkeys and tell the table which rows were added or removed
+   * at the end and that the rows before them may show other monkeys.
+   */
+  public void refresh() {
+    int previous = rowCount;
+    readLock.lock();
+    try {
+      this.rowCount = rows();
+    } finally {
+      readLock.unlock();
+    }
+    if (rowCount > previous) {
+      fireTableRowsInserted(previous, rowCount - 1);
+    } else if (rowCount < previous) {
+      fireTableRowsDeleted(rowCount, previous - 1);
+    }
+    int unchanged = Math.min(previous, rowCount);
+    if (unchanged > 0) {
+      fireTableRowsUpdated(0, unchanged - 1);
+    }
+  }
+
+  /**
+   * Create a row sorter for this model that sorts again whenever rows are updated.
+   * @return The row sorter.
+   */
+  public TableRowSorter<MonkeyTableModel> newRowSorter() {
+    TableRowSorter<MonkeyTableModel> sorter = new TableRowSorter<>(this);
+    sorter.setSortsOnUpdates(true);
+    return sorter;
+  }
+
+  @Override
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public int getColumnCount() {
+    return COLUMNS.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMNS[column];
+  }
+
+  @Override
+  public Class<?> getColumnClass(int column) {
+    return COLUMN_CLASSES[column];
+  }
+
+  @Override
+  public Object getValueAt(int row, int column) {
+    Monkey monkey;
+    readLock.lock();
+    try {
+      monkey = monkeyAt(row);
+      if (monkey == null) {
+        return null;
+      }
+    } finally {
+      readLock.unlock();
+    }
+    switch (column) {
+      case 0: return monkey.getName();
+      case 1: return monkey.getSpecies();
+      case 2: return monkey.getSex();
+      case 3: return monkey.getSize();
+      case 4: return monkey.getWeight();
+      case 5: return monkey.getAge();
+      case 6: return monkey.getFavoriteFood();
+      case 7: return monkey.isHealthy();
+      default: return monkey.getStatus();
+    }
+  }
+
+  private int rows() {
+    return sanctuary.size() + sanctuary.getIsolation().getWaitingMonkeys().size();
+  }
+
+  /**
+   * Get the monkey shown in a row: a housed monkey, or else a waiting one.
+   * @return The monkey, or null if the row no longer exists.
+   */
+  private Monkey monkeyAt(int row) {
+    int housed = sanctuary.size();
+    if (row < housed) {
+      return sanctuary.monkeyAt(row);
+    }
+    Iterator<Monkey> waiting = sanctuary.getIsolation().getWaitingMonkeys().iterator();
+    for (int skip = row - housed; skip > 0 && waiting.hasNext(); skip--) {
+      waiting.next();
+    }
+    return waiting.hasNext() ? waiting.next() : null;
+  }
+}
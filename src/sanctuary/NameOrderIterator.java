@@ -0,0 +1,64 @@
+package sanctuary;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Iterator that merges several lists of monkeys, each already ordered by name,
+ * into a single alphabetical sequence without copying the lists.
+ * Each step costs O(log k) for k lists and the iterator keeps O(k) extra state.
+ */
+class NameOrderIterator implements Iterator<Monkey> {
+  private PriorityQueue<Cursor> cursors;
+
+  /**
+   * Constructor for creating a merge over the given name-ordered lists.
+   * @param lists The lists to merge, each sorted by name.
+   */
+  NameOrderIterator(List<List<Monkey>> lists) {
+    this.cursors = new PriorityQueue<>(Math.max(1, lists.size()),
+            (a, b) -> Monkey.NAME_ORDER.compare(a.current(), b.current()));
+    for (List<Monkey> list : lists) {
+      if (!list.isEmpty()) {
+        this.cursors.add(new Cursor(list));
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !this.cursors.isEmpty();
+  }
+
+  @Override
+  public Monkey next() {
+    Cursor cursor = this.cursors.poll();
+    if (cursor == null) {
+      throw new NoSuchElementException();
+    }
+    Monkey monkey = cursor.current();
+    cursor.position++;
+    if (cursor.position < cursor.list.size()) {
+      this.cursors.add(cursor);
+    }
+    return monkey;
+  }
+
+  /**
+   * Position within one of the merged lists.
+   */
+  private static class Cursor {
+    private final List<Monkey> list;
+    private int position;
+
+    Cursor(List<Monkey> list) {
+      this.list = list;
+    }
+
+    Monkey current() {
+      return this.list.get(this.position);
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package sanctuary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Fork/join versions of the sanctuary-wide scans, used once the population is large
+ * enough for parallel work to pay off, and of the fan-out across the sanctuaries of a
+ * cluster. Each housing or sanctuary is an independent shard, so
+ * shards are scanned or rendered as separate tasks and the results are combined in
+ * the order the sequential code would have produced them.
+ */
+class ParallelScans {
+  /**
+   * The population from which sanctuary-wide reports and scans run in parallel by default.
+   */
+  static final int DEFAULT_THRESHOLD = 50_000;
+
+  private static final int FORMAT_CHUNK = 8_192;
+  private static final int MERGE_CHUNK = 8_192;
+
+  private ParallelScans() {
+  }
+
+  /**
+   * Render one report per shard in parallel.
+   * @param pool The pool to run on.
+   * @param renderers The shard renderers, in report order.
+   * @return The rendered reports, in the same order.
+   */
+  static String[] renderEach(ForkJoinPool pool, List<Supplier<String>> renderers) {
+    return each(pool, renderers).toArray(new String[0]);
+  }
+
+  /**
+   * Run one task per shard in parallel and collect the results.
+   * @param pool The pool to run on.
+   * @param suppliers The shard tasks, in result order.
+   * @param <T> The type of result.
+   * @return The results, in the same order.
+   */
+  static <T> List<T> each(ForkJoinPool pool, List<? extends Supplier<T>> suppliers) {
+    List<ForkJoinTask<T>> tasks = new ArrayList<>(suppliers.size());
+    for (Supplier<T> supplier : suppliers) {
+      tasks.add(pool.submit(supplier::get));
+    }
+    List<T> results = new ArrayList<>(tasks.size());
+    for (ForkJoinTask<T> task : tasks) {
+      results.add(task.join());
+    }
+    return results;
+  }
+
+  /**
+   * Collect the monkeys accepted by a filter, scanning each list in parallel.
+   * @param pool The pool to run on.
+   * @param lists The lists to scan.
+   * @param filter The filter to apply.
+   * @return The accepted monkeys, in list order and then in order within each list.
+   */
+  static List<Monkey> filter(ForkJoinPool pool, List<List<Monkey>> lists, Predicate<Monkey> filter) {
+    List<ForkJoinTask<List<Monkey>>> tasks = new ArrayList<>(lists.size());
+    for (List<Monkey> list : lists) {
+      tasks.add(pool.submit(() -> {
+        List<Monkey> accepted = new ArrayList<>();
+        for (Monkey monkey : list) {
+          if (filter.test(monkey)) {
+            accepted.add(monkey);
+          }
+        }
+        return accepted;
+      }));
+    }
+    List<Monkey> result = new ArrayList<>();
+    for (ForkJoinTask<List<Monkey>> task : tasks) {
+      result.addAll(task.join());
+    }
+    return result;
+  }
+
+  /**
+   * Merge name-ordered lists into one name-ordered list, merging pairs of lists in parallel.
+   * @param pool The pool to run on.
+   * @param lists The lists to merge, each sorted by name.
+   * @return A new list of every monkey, ordered by name.
+   */
+  static List<Monkey> mergeByName(ForkJoinPool pool, List<List<Monkey>> lists) {
+    return pool.invoke(new MergeTask(lists, 0, lists.size()));
+  }
+
+  /**
+   * Format the rows of the list of all monkeys, formatting chunks of the list in parallel.
+   * @param pool The pool to run on.
+   * @param monkeys The monkeys to format, in output order.
+   * @return The rows of every monkey, in list order.
+   */
+  static String format(ForkJoinPool pool, List<Monkey> monkeys) {
+    String[] chunks = new String[(monkeys.size() + FORMAT_CHUNK - 1) / FORMAT_CHUNK];
+    pool.invoke(new FormatTask(monkeys, chunks, 0, chunks.length));
+    int length = 0;
+    for (String chunk : chunks) {
+      length += chunk.length();
+    }
+    StringBuilder text = new StringBuilder(length);
+    for (String chunk : chunks) {
+      text.append(chunk);
+    }
+    return text.toString();
+  }
+
+  /**
+   * Merges a range of name-ordered lists by splitting the range in half.
+   */
+  private static class MergeTask extends RecursiveTask<List<Monkey>> {
+    private static final long serialVersionUID = 1L;
+
+    private final List<List<Monkey>> lists;
+    private final int from;
+    private final int to;
+
+    MergeTask(List<List<Monkey>> lists, int from, int to) {
+      this.lists = lists;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected List<Monkey> compute() {
+      if (to - from == 0) {
+        return new ArrayList<>();
+      }
+      if (to - from == 1) {
+        return new ArrayList<>(lists.get(from));
+      }
+      int middle = (from + to) >>> 1;
+      MergeTask left = new MergeTask(lists, from, middle);
+      MergeTask right = new MergeTask(lists, middle, to);
+      if (size(from, to) < MERGE_CHUNK) {
+        return merge(left.compute(), right.compute());
+      }
+      right.fork();
+      List<Monkey> merged = left.compute();
+      return merge(merged, right.join());
+    }
+
+    private int size(int start, int end) {
+      int size = 0;
+      for (int i = start; i < end; i++) {
+        size += lists.get(i).size();
+      }
+      return size;
+    }
+
+    private static List<Monkey> merge(List<Monkey> left, List<Monkey> right) {
+      List<Monkey> merged = new ArrayList<>(left.size() + right.size());
+      int i = 0;
+      int j = 0;
+      while (i < left.size() && j < right.size()) {
+        if (Monkey.NAME_ORDER.compare(left.get(i), right.get(j)) <= 0) {
+          merged.add(left.get(i++));
+        } else {
+          merged.add(right.get(j++));
+        }
+      }
+      merged.addAll(left.subList(i, left.size()));
+      merged.addAll(right.subList(j, right.size()));
+      return merged;
+    }
+  }
+
+  /**
+   * Formats a range of fixed-size chunks of a list, each into its own string.
+   */
+  private static class FormatTask extends RecursiveTask<Void> {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Monkey> monkeys;
+    private final String[] chunks;
+    private final int from;
+    private final int to;
+
+    FormatTask(List<Monkey> monkeys, String[] chunks, int from, int to) {
+      this.monkeys = monkeys;
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Void compute() {
+      if (to - from > 1) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new FormatTask(monkeys, chunks, from, middle),
+                new FormatTask(monkeys, chunks, middle, to));
+        return null;
+      }
+      if (to > from) {
+        int start = from * FORMAT_CHUNK;
+        int end = Math.min(monkeys.size(), start + FORMAT_CHUNK);
+        StringBuilder chunk = new StringBuilder((end - start) * 64);
+        RowFormatter rows = RowFormatter.forThread();
+        try {
+          for (int i = start; i < end; i++) {
+            rows.listingRow(chunk, monkeys.get(i));
+          }
+          rows.flush(chunk);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+        chunks[from] = chunk.toString();
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package sanctuary;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache of rendered report strings for the sanctuary listings.
+ * Each slot remembers the version of the housing it was rendered from and is
+ * rebuilt only when that version changes, so unchanged fragments are reused.
+ * Slots hold immutable entries and the counters are adders, so listings running
+ * together under a shared read lock can use the cache at the same time.
+ */
+class ReportCache {
+  private final AtomicReferenceArray<Entry> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private volatile boolean enabled = true;
+
+  /**
+   * A report together with the version it was rendered from.
+   */
+  private static final class Entry {
+    private final long version;
+    private final String report;
+
+    private Entry(long version, String report) {
+      this.version = version;
+      this.report = report;
+    }
+  }
+
+  /**
+   * Constructor for creating an empty cache.
+   * @param slots The number of reports the cache can hold.
+   */
+  ReportCache(int slots) {
+    this.entries = new AtomicReferenceArray<>(slots);
+  }
+
+  /**
+   * Get the report in a slot, rebuilding it if it was rendered from an older version.
+   * @param slot The slot of the report.
+   * @param version The current version of the data the report is rendered from.
+   * @param builder Renders the report on a cache miss.
+   * @return The cached or freshly rendered report.
+   */
+  String get(int slot, long version, Supplier<String> builder) {
+    String cached = cached(slot, version);
+    if (cached != null) {
+      return cached;
+    }
+    this.misses.increment();
+    String report = builder.get();
+    this.entries.set(slot, new Entry(version, report));
+    return report;
+  }
+
+  /**
+   * Get the report in a slot only if it was rendered from the given version.
+   * A report found counts as a hit; nothing is rendered when it is missing.
+   * @param slot The slot of the report.
+   * @param version The current version of the data the report is rendered from.
+   * @return The cached report, or null if it is missing or out of date.
+   */
+  String cached(int slot, long version) {
+    Entry entry = current(slot, version);
+    if (entry == null) {
+      return null;
+    }
+    this.hits.increment();
+    return entry.report;
+  }
+
+  /**
+   * Check whether a slot holds a report rendered from the given version.
+   * @param slot The slot of the report.
+   * @param version The current version of the data the report is rendered from.
+   * @return True if get would be served from the cache.
+   */
+  boolean isCurrent(int slot, long version) {
+    return current(slot, version) != null;
+  }
+
+  /**
+   * Get the entry in a slot if it was rendered from the given version.
+   * @return The entry, or null if it is missing, out of date or caching is off.
+   */
+  private Entry current(int slot, long version) {
+    if (!this.enabled) {
+      return null;
+    }
+    Entry entry = this.entries.get(slot);
+    return entry != null && entry.version == version ? entry : null;
+  }
+
+  /**
+   * Turn caching on or off. While off, every report is rendered again.
+   * @param enabled True to serve unchanged reports from the cache.
+   */
+  void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Get the number of reports served from the cache.
+   * @return The number of cache hits.
+   */
+  long getHits() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Get the number of reports that had to be rendered.
+   * @return The number of cache misses.
+   */
+  long getMisses() {
+    return this.misses.sum();
+  }
+}
@@ -0,0 +1,159 @@
+package sanctuary;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Formats listing rows without allocating per row.
+ * The text of every Food, Status and Sex constant and of the fixed labels is
+ * encoded once as a char array. Rows are copied into a buffer that each thread reuses,
+ * and the buffer is handed to the output in bulk when it fills up and on flush().
+ *
+ * <p>A formatter buffers rows for one output at a time: callers write their rows and
+ * then call flush() before writing anything else to the same output.
+ */
+final class RowFormatter {
+  private static final int BUFFER_SIZE = 8 * 1024;
+  private static final ThreadLocal<RowFormatter> FORMATTERS = ThreadLocal.withInitial(RowFormatter::new);
+
+  private static final char[] NAME = "Name: ".toCharArray();
+  private static final char[] SEX = ", Sex: ".toCharArray();
+  private static final char[] FAVORITE_FOOD = ", Favorite Food: ".toCharArray();
+  private static final char[] HOUSING_STATUS = ", Housing Status: ".toCharArray();
+  private static final char[] NO_STATUS = "null".toCharArray();
+  private static final char[][] FOODS = encode(Food.values());
+  private static final char[][] STATUSES = encode(Status.values());
+  private static final char[][] SEXES = encode(Sex.values());
+  private static final int LONGEST_STATUS = longest(STATUSES, NO_STATUS);
+
+  private char[] buffer = new char[BUFFER_SIZE];
+  private CharBuffer view = CharBuffer.wrap(buffer);
+  private int length;
+  private Appendable target;
+
+  private RowFormatter() {
+  }
+
+  /**
+   * Get the formatter of the calling thread.
+   * @return The formatter, reused by every later call on this thread.
+   */
+  static RowFormatter forThread() {
+    return FORMATTERS.get();
+  }
+
+  /**
+   * Buffer the row of a monkey in an enclosure listing:
+   * "Name: n, Sex: s, Favorite Food: f" and a line break.
+   * @param out The output the row is for.
+   * @param monkey The monkey to list.
+   * @throws IOException if the buffer had to be written and the output failed.
+   */
+  void enclosureRow(Appendable out, Monkey monkey) throws IOException {
+    startRow(out, monkey);
+    put('\n');
+  }
+
+  /**
+   * Buffer the row of a monkey in the list of all monkeys:
+   * "Name: n, Sex: s, Favorite Food: f, Housing Status: h" and a line break.
+   * @param out The output the row is for.
+   * @param monkey The monkey to list.
+   * @throws IOException if the buffer had to be written and the output failed.
+   */
+  void listingRow(Appendable out, Monkey monkey) throws IOException {
+    startRow(out, monkey);
+    put(HOUSING_STATUS);
+    put(monkey.getStatus() == null ? NO_STATUS : STATUSES[monkey.getStatus().ordinal()]);
+    put('\n');
+  }
+
+  /**
+   * Write the buffered rows to the output and release it.
+   * @param out The output the rows are for.
+   * @throws IOException if the output cannot be written.
+   */
+  void flush(Appendable out) throws IOException {
+    try {
+      if (out == target) {
+        drain(out);
+      }
+    } finally {
+      length = 0;
+      target = null;
+    }
+  }
+
+  /**
+   * Hand the buffered characters to the output in one call.
+   */
+  private void drain(Appendable out) throws IOException {
+    int pending = length;
+    length = 0;
+    if (pending == 0) {
+      return;
+    }
+    if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(buffer, 0, pending);
+    } else if (out instanceof Writer) {
+      ((Writer) out).write(buffer, 0, pending);
+    } else {
+      out.append(view, 0, pending);
+    }
+  }
+
+  /**
+   * Buffer the columns shared by every row, after making room for the row.
+   */
+  private void startRow(Appendable out, Monkey monkey) throws IOException {
+    if (out != target) {
+      length = 0;
+      target = out;
+    }
+    String name = monkey.getName();
+    char[] sex = SEXES[monkey.getSex().ordinal()];
+    char[] food = FOODS[monkey.getFavoriteFood().ordinal()];
+    int needed = NAME.length + name.length() + SEX.length + sex.length + FAVORITE_FOOD.length + food.length
+            + HOUSING_STATUS.length + LONGEST_STATUS + 1;
+    if (length + needed > buffer.length) {
+      drain(out);
+      if (needed > buffer.length) {
+        buffer = new char[needed];
+        view = CharBuffer.wrap(buffer);
+      }
+    }
+    put(NAME);
+    name.getChars(0, name.length(), buffer, length);
+    length += name.length();
+    put(SEX);
+    put(sex);
+    put(FAVORITE_FOOD);
+    put(food);
+  }
+
+  private void put(char[] text) {
+    System.arraycopy(text, 0, buffer, length, text.length);
+    length += text.length;
+  }
+
+  private void put(char c) {
+    buffer[length++] = c;
+  }
+
+  private static int longest(char[][] texts, char[] other) {
+    int longest = other.length;
+    for (char[] text : texts) {
+      longest = Math.max(longest, text.length);
+    }
+    return longest;
+  }
+
+  private static char[][] encode(Enum<?>[] constants) {
+    char[][] texts = new char[constants.length][];
+    for (Enum<?> constant : constants) {
+      texts[constant.ordinal()] = constant.toString().toCharArray();
+    }
+    return texts;
+  }
+}
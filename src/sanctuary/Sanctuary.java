@@ -1,119 +1,698 @@
 package sanctuary;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * The Sanctuary class represents the primate sanctuary for monkeys.
  * It includes facilities for isolation and enclosures, where monkeys can be housed.
  */
 public class Sanctuary {
+  private static final String ALL_MONKEYS_HEADER = "All monkeys housed in the Sanctuary:\n";
+
   private Isolation isolation;
   private Enclosures[] enclosures;
+  private Map<String, Monkey> registry;
+  private ReportCache reports;
+  private SanctuaryEventBus events;
+  private MonkeyIndex index;
+  private FoodAggregates food;
+  private ForkJoinPool parallelPool;
+  private int parallelThreshold;
 
   /**
    * Constructor for creating a new Sanctuary.
    * Initializes isolation and enclosure facilities for monkeys of different species.
    */
   public Sanctuary(){
-    this.isolation = new Isolation();
+    this(Isolation.DEFAULT_CAGE_CAPACITY, 0);
+  }
+
+  /**
+   * Constructor for creating a new Sanctuary with a configured isolation housing.
+   * @param isolationCapacity The number of isolation cages.
+   * @param waitingCapacity The number of monkeys that may wait for an isolation cage.
+   */
+  public Sanctuary(int isolationCapacity, int waitingCapacity){
+    this.isolation = new Isolation(isolationCapacity, waitingCapacity);
+    this.registry = new ConcurrentHashMap<>();
     this.enclosures = new Enclosures[Species.values().length];
     for (int i = 0; i < Species.values().length; i ++){
       enclosures[i] = new Enclosures(Species.values()[i]);
     }
+    this.reports = new ReportCache(2 * enclosures.length + 2);
+    this.events = new SanctuaryEventBus();
+    this.index = new MonkeyIndex();
+    this.food = new FoodAggregates();
+    this.parallelPool = ForkJoinPool.commonPool();
+    this.parallelThreshold = ParallelScans.DEFAULT_THRESHOLD;
+    this.isolation.addListener(new IsolationListener() {
+      @Override
+      public void monkeyAdded(int position, Monkey monkey) {
+        if (registry.get(monkey.getName()) == monkey) {
+          index.statusChanged(monkey);
+          food.admitted(monkey);
+        }
+      }
+
+      @Override
+      public void monkeyRemoved(int position, int lastPosition, Monkey monkey) {
+      }
+    });
   }
 
   /**
-   * Add a monkey to the isolation facility.
+   * Add a monkey to the isolation facility, or to its waiting queue if every cage is taken.
+   * The monkey's name is recorded in the sanctuary registry once it is accepted.
    * @param monkey The monkey to be added to isolation.
+   * @throws IllegalArgumentException if a monkey with the same name is already registered.
    */
   public void addToIsolation(Monkey monkey){
+    if(this.registry.containsKey(monkey.getName())){
+      throw new IllegalArgumentException("Monkey is already added!");
+    }
     this.isolation.addMonkey(monkey);
+    this.registry.put(monkey.getName(), monkey);
+    this.index.add(monkey);
+    this.food.registered(monkey);
+    this.events.publish(new SanctuaryEvent(SanctuaryEvent.Type.REGISTERED, monkey));
+  }
+
+  /**
+   * Add a batch of monkeys to the isolation facility.
+   * The whole batch is validated in a single pass before any monkey is admitted,
+   * so either every monkey is added or none is. Monkeys beyond the free cages
+   * join the waiting queue.
+   * @param monkeys The monkeys to be added to isolation.
+   * @throws IllegalArgumentException if a monkey is missing, a name is already registered
+   *     or repeated within the batch, or the batch does not fit in the free cages and waiting places.
+   */
+  public void addAllToIsolation(Collection<Monkey> monkeys){
+    checkAdmission(monkeys);
+    this.events.batch(() -> {
+      for (Monkey monkey : monkeys) {
+        this.isolation.addMonkey(monkey);
+        this.registry.put(monkey.getName(), monkey);
+        this.index.add(monkey);
+        this.food.registered(monkey);
+        this.events.publish(new SanctuaryEvent(SanctuaryEvent.Type.REGISTERED, monkey));
+      }
+    });
+  }
+
+  /**
+   * Check that a batch of monkeys can be admitted as a whole, without admitting any.
+   * @param monkeys The monkeys to be added to isolation.
+   * @throws IllegalArgumentException if addAllToIsolation would reject the batch.
+   */
+  void checkAdmission(Collection<Monkey> monkeys) {
+    int freeCages = isolation.getCageCapacity() - isolation.getMonkeys().size();
+    int freePlaces = Math.max(0, freeCages) + isolation.getWaitingCapacity() - isolation.getWaitingMonkeys().size();
+    if (monkeys.size() > freePlaces) {
+      throw new IllegalArgumentException("Cages in the Isolation are full");
+    }
+    Set<String> names = new HashSet<>();
+    for (Monkey monkey : monkeys) {
+      if (monkey == null) {
+        throw new IllegalArgumentException("Monkey is not found!");
+      }
+      if (this.registry.containsKey(monkey.getName()) || !names.add(monkey.getName())) {
+        throw new IllegalArgumentException("Monkey " + monkey.getName() + " is already added!");
+      }
+    }
+  }
+
+  /**
+   * Change the number of isolation cages. Growing admits waiting monkeys into the new cages.
+   * @param capacity The new number of cages.
+   * @throws IllegalArgumentException if an occupied cage would be removed.
+   */
+  public void setIsolationCapacity(int capacity){
+    this.isolation.setCageCapacity(capacity);
+    this.events.publish(new SanctuaryEvent(SanctuaryEvent.Type.CAPACITY_CHANGED, null));
+  }
+
+  /**
+   * Change the number of monkeys that may wait for an isolation cage.
+   * @param capacity The new number of waiting places.
+   * @throws IllegalArgumentException if fewer places than waiting monkeys are requested.
+   */
+  public void setWaitingCapacity(int capacity){
+    this.isolation.setWaitingCapacity(capacity);
+    this.events.publish(new SanctuaryEvent(SanctuaryEvent.Type.CAPACITY_CHANGED, null));
   }
 
   /**
    * Move a monkey from isolation to the appropriate enclosure.
+   * The enclosure is looked up directly by the ordinal of the monkey's species.
    * @param monkey The monkey to be moved to the enclosure.
    * @throws IllegalArgumentException if the monkey is not found.
+   * @throws IllegalArgumentException if the monkey is not in isolation.
+   * @throws IllegalArgumentException if the monkey is not healthy.
    */
   public void moveToEnclosure(Monkey monkey) {
     if(monkey == null){
       throw new IllegalArgumentException("Monkey is not found!");
     }
-    else {
-      if(monkey.getStatus().equals(Status.ISOLATION)){
-        for(Enclosures enclosure : enclosures){
-          isolation.removeMonkey(monkey);
-          enclosure.addMonkey(monkey);
-        }
-      }
+    if(!isolation.contains(monkey)){
+      throw new IllegalArgumentException("Monkey is not in isolation!");
+    }
+    Enclosures enclosure = getEnclosure(monkey.getSpecies());
+    isolation.removeMonkey(monkey);
+    enclosure.addMonkey(monkey);
+    index.statusChanged(monkey);
+    food.moved(monkey);
+    events.publish(new SanctuaryEvent(SanctuaryEvent.Type.MOVED, monkey));
+  }
+
+  /**
+   * Place a monkey directly into its species enclosure, bypassing isolation.
+   * Used when restoring monkeys that were already housed in an enclosure.
+   * @param monkey The monkey to be restored.
+   * @throws IllegalArgumentException if the name is already registered or the monkey is not healthy.
+   */
+  void restoreToEnclosure(Monkey monkey) {
+    if(this.registry.containsKey(monkey.getName())){
+      throw new IllegalArgumentException("Monkey is already added!");
     }
+    if(!monkey.isHealthy()){
+      throw new IllegalArgumentException("Monkey is unhealthy.");
+    }
+    getEnclosure(monkey.getSpecies()).addMonkey(monkey);
+    this.registry.put(monkey.getName(), monkey);
+    this.index.add(monkey);
+    this.food.restored(monkey);
+  }
+
+  /**
+   * Release a monkey from the sanctuary, wherever it is housed, and free its name.
+   * A monkey in a cage frees the cage for the first waiting monkey, and a waiting
+   * monkey leaves the queue.
+   * @param monkey The monkey to release.
+   * @throws IllegalArgumentException if the monkey is not registered here or is not healthy.
+   */
+  void release(Monkey monkey) {
+    if (monkey == null || this.registry.get(monkey.getName()) != monkey) {
+      throw new IllegalArgumentException("Monkey is not found!");
+    }
+    Status status = monkey.getStatus();
+    if (status == Status.ENCLOSURE) {
+      getEnclosure(monkey.getSpecies()).removeMonkey(monkey);
+    } else {
+      this.isolation.removeMonkey(monkey);
+    }
+    this.registry.remove(monkey.getName());
+    this.index.remove(monkey);
+    this.food.released(monkey, status);
+    this.events.publish(new SanctuaryEvent(SanctuaryEvent.Type.RELEASED, monkey));
+  }
+
+  /**
+   * Retrieves the enclosure housing the given species.
+   * @param species The species of the enclosure.
+   * @return The enclosure for the species.
+   */
+  public Enclosures getEnclosure(Species species){
+    return this.enclosures[species.ordinal()];
+  }
+
+  /**
+   * Mark a monkey as healed so it can be moved to an enclosure.
+   * @param monkey The monkey that received medical attention.
+   * @throws IllegalArgumentException if the monkey is not found.
+   */
+  public void healMonkey(Monkey monkey) {
+    if(monkey == null){
+      throw new IllegalArgumentException("Monkey is not found!");
+    }
+    monkey.healedMonkey();
+    index.healthChanged(monkey);
+    events.publish(new SanctuaryEvent(SanctuaryEvent.Type.HEALED, monkey));
   }
 
   /**
    * List monkeys housed in an enclosure of the given species.
+   * The list is served from the report cache while the enclosure is unchanged.
    * @param species The species of the enclosure for which to produce the list.
    * @return A formatted string containing monkeys' name, sex, and favorite food.
    */
   public String monkeysInOneEnclosure(Species species) {
-    StringBuilder enclosureList = new StringBuilder();
-    for (Enclosures enclosure : enclosures) {
-      if (enclosure.getSpeciesType() == species) {
-        if (!enclosure.getMonkeys().isEmpty()) {
-          enclosureList.append("Enclosure for ").append(enclosure.getSpeciesType()).append(":\n");
-          enclosureList.append(enclosure.listMonkeys());
-        }
-        else{
-          enclosureList.append("Enclosure for ").append(enclosure.getSpeciesType()).append(" is empty.");
-        }
-      }
+    Enclosures enclosure = getEnclosure(species);
+    return reports.get(enclosures.length + species.ordinal(), enclosure.getVersion(), () -> render(out ->
+            writeEnclosure(out, enclosure, enclosure.getMonkeys().isEmpty() ? null : enclosureFragment(enclosure))));
+  }
+
+  /**
+   * Write the list of monkeys housed in an enclosure of the given species.
+   * A cached list is written as is; otherwise rows are written straight to the output
+   * as they are formatted, so memory use does not grow with the population.
+   * @param species The species of the enclosure for which to write the list.
+   * @param out Receives the list, in the same format as monkeysInOneEnclosure.
+   * @throws IOException if the output cannot be written.
+   */
+  public void writeMonkeysInOneEnclosure(Species species, Appendable out) throws IOException {
+    Enclosures enclosure = getEnclosure(species);
+    String cached = reports.cached(enclosures.length + species.ordinal(), enclosure.getVersion());
+    if (cached != null) {
+      out.append(cached);
+      return;
     }
-    return enclosureList.toString();
+    writeEnclosure(out, enclosure, reports.cached(species.ordinal(), enclosure.getVersion()));
   }
 
   /**
    * List all the monkeys currently housed in each enclosure.
+   * The list is served from the report cache while no enclosure has changed,
+   * and only the fragments of changed enclosures are rendered again,
+   * in parallel for large populations.
    * @return A formatted string containing monkeys' name, sex, and favorite food.
    */
   public String monkeysInAllEnclosures() {
-    StringBuilder enclosureList = new StringBuilder();
+    return reports.get(2 * enclosures.length, enclosuresVersion(), () -> {
+      String[] fragments = enclosureFragments();
+      return render(out -> writeEnclosures(out, fragments));
+    });
+  }
+
+  /**
+   * Write the list of all the monkeys currently housed in each enclosure.
+   * Cached lists are written as they are; every other enclosure is written row by row.
+   * @param out Receives the list, in the same format as monkeysInAllEnclosures.
+   * @throws IOException if the output cannot be written.
+   */
+  public void writeMonkeysInAllEnclosures(Appendable out) throws IOException {
+    String cached = reports.cached(2 * enclosures.length, enclosuresVersion());
+    if (cached != null) {
+      out.append(cached);
+      return;
+    }
+    String[] fragments = new String[enclosures.length];
     for (Enclosures enclosure : enclosures) {
-      if(!enclosure.getMonkeys().isEmpty()){
-        enclosureList.append("\nEnclosure for ").append(enclosure.getSpeciesType()).append(":\n");
-        enclosureList.append(enclosure.listMonkeys());
-      }
-      else{
-        enclosureList.append("\nEnclosure for ").append(enclosure.getSpeciesType()).append(" is empty.\n");
-      }
+      int slot = enclosure.getSpeciesType().ordinal();
+      fragments[slot] = reports.cached(slot, enclosure.getVersion());
     }
-    return enclosureList.toString();
+    writeEnclosures(out, fragments);
   }
 
   /**
    * List all the monkeys housed in the entire sanctuary.
    * The list will be sorted alphabetically by the names of the monkeys.
+   * The list is served from the report cache while no housing has changed.
+   * Large populations are merged and formatted in parallel.
    * @return A formatted string containing monkeys' name, sex, and favorite food.
    */
   public String allMonkeysList() {
-    List<Monkey> allMonkeys = new ArrayList<>();
-    allMonkeys.addAll(isolation.getMonkeys());
+    return reports.get(2 * enclosures.length + 1, isolation.getVersion() + enclosuresVersion(), () -> {
+      if (runsInParallel()) {
+        List<Monkey> allMonkeys = ParallelScans.mergeByName(parallelPool, nameOrderedLists());
+        return ALL_MONKEYS_HEADER + ParallelScans.format(parallelPool, allMonkeys);
+      }
+      return render(this::writeAllMonkeys);
+    });
+  }
+
+  /**
+   * Write the list of all the monkeys housed in the entire sanctuary, sorted by name.
+   * A cached list is written as is; otherwise rows are written straight to the output
+   * while the housings are merged by name, so memory use does not grow with the population.
+   * @param out Receives the list, in the same format as allMonkeysList.
+   * @throws IOException if the output cannot be written.
+   */
+  public void writeAllMonkeysList(Appendable out) throws IOException {
+    String cached = reports.cached(2 * enclosures.length + 1, isolation.getVersion() + enclosuresVersion());
+    if (cached != null) {
+      out.append(cached);
+      return;
+    }
+    writeAllMonkeys(out);
+  }
+
+  /**
+   * Export the list of all the monkeys housed in the entire sanctuary to a channel as UTF-8.
+   * Rows are encoded through one reused buffer. The channel is left open.
+   * @param channel Receives the list, in the same format as allMonkeysList.
+   * @throws IOException if the channel cannot be written.
+   */
+  public void writeAllMonkeysList(WritableByteChannel channel) throws IOException {
+    Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+    writeAllMonkeysList(writer);
+    writer.flush();
+  }
+
+  /**
+   * Collect the monkeys housed in isolation and every enclosure that are accepted by a filter.
+   * Large populations are scanned with one parallel task per housing.
+   * @param filter The condition a monkey must meet, such as Monkey::isHealthy for a health census.
+   * @return The accepted monkeys, in isolation first and then in species enclosure order.
+   */
+  public List<Monkey> scan(Predicate<Monkey> filter) {
+    List<List<Monkey>> housings = new ArrayList<>(enclosures.length + 1);
+    housings.add(isolation.getMonkeys());
+    for (Enclosures enclosure : enclosures) {
+      housings.add(enclosure.getMonkeys());
+    }
+    if (runsInParallel()) {
+      return ParallelScans.filter(parallelPool, housings, filter);
+    }
+    List<Monkey> accepted = new ArrayList<>();
+    for (List<Monkey> housing : housings) {
+      for (Monkey monkey : housing) {
+        if (filter.test(monkey)) {
+          accepted.add(monkey);
+        }
+      }
+    }
+    return accepted;
+  }
+
+  /**
+   * Choose where and from what population the sanctuary-wide listings and scans run in parallel.
+   * @param pool The fork/join pool to run on.
+   * @param threshold The population from which work runs in parallel; Integer.MAX_VALUE to never.
+   * @throws IllegalArgumentException if the pool is missing or the threshold is negative.
+   */
+  public void setParallelism(ForkJoinPool pool, int threshold) {
+    if (pool == null || threshold < 0) {
+      throw new IllegalArgumentException("Parallelism needs a pool and a threshold of at least 0");
+    }
+    this.parallelPool = pool;
+    this.parallelThreshold = threshold;
+  }
+
+  /**
+   * Write the list of all monkeys, merging the housings by name.
+   * @param out Receives the list.
+   * @throws IOException if the output cannot be written.
+   */
+  private void writeAllMonkeys(Appendable out) throws IOException {
+    out.append(ALL_MONKEYS_HEADER);
+    RowFormatter rows = RowFormatter.forThread();
+    Iterator<Monkey> allMonkeys = monkeysByName();
+    while (allMonkeys.hasNext()) {
+      rows.listingRow(out, allMonkeys.next());
+    }
+    rows.flush(out);
+  }
+
+  /**
+   * Write the section of one enclosure in the list of a single enclosure.
+   * @param out Receives the section.
+   * @param enclosure The enclosure to list.
+   * @param fragment The rendered rows of the enclosure, or null to write them row by row.
+   * @throws IOException if the output cannot be written.
+   */
+  private static void writeEnclosure(Appendable out, Enclosures enclosure, String fragment) throws IOException {
+    out.append("Enclosure for ").append(enclosure.getSpeciesType().toString());
+    if (enclosure.getMonkeys().isEmpty()) {
+      out.append(" is empty.");
+      return;
+    }
+    out.append(":\n");
+    writeFragment(out, enclosure, fragment);
+  }
+
+  /**
+   * Write the sections of every enclosure in species order.
+   * @param out Receives the sections.
+   * @param fragments The rendered rows of each enclosure by species ordinal, or null
+   *     for enclosures to write row by row.
+   * @throws IOException if the output cannot be written.
+   */
+  private void writeEnclosures(Appendable out, String[] fragments) throws IOException {
+    for (Enclosures enclosure : enclosures) {
+      out.append("\nEnclosure for ").append(enclosure.getSpeciesType().toString());
+      if (enclosure.getMonkeys().isEmpty()) {
+        out.append(" is empty.\n");
+      } else {
+        out.append(":\n");
+        writeFragment(out, enclosure, fragments[enclosure.getSpeciesType().ordinal()]);
+      }
+    }
+  }
+
+  private static void writeFragment(Appendable out, Enclosures enclosure, String fragment) throws IOException {
+    if (fragment != null) {
+      out.append(fragment);
+    } else {
+      enclosure.writeMonkeys(out);
+    }
+  }
+
+  /**
+   * Render a report into a string.
+   * @param report Writes the report.
+   * @return The rendered report.
+   */
+  private static String render(Report report) {
+    StringBuilder text = new StringBuilder();
+    try {
+      report.writeTo(text);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return text.toString();
+  }
+
+  /**
+   * Writes a report to an output.
+   */
+  private interface Report {
+    void writeTo(Appendable out) throws IOException;
+  }
+
+  /**
+   * Check whether the population is large enough for parallel listings and scans.
+   * @return True to run in parallel.
+   */
+  private boolean runsInParallel() {
+    return housedCount() >= parallelThreshold;
+  }
+
+  /**
+   * Get the listing fragment of every non-empty enclosure, indexed by species ordinal.
+   * For large populations the fragments that are not cached are rendered in parallel.
+   * @return The fragments, with null for empty enclosures.
+   */
+  private String[] enclosureFragments() {
+    String[] fragments = new String[enclosures.length];
+    if (runsInParallel()) {
+      List<Enclosures> stale = new ArrayList<>();
+      List<Supplier<String>> renderers = new ArrayList<>();
+      for (Enclosures enclosure : enclosures) {
+        if (!enclosure.getMonkeys().isEmpty()
+                && !reports.isCurrent(enclosure.getSpeciesType().ordinal(), enclosure.getVersion())) {
+          stale.add(enclosure);
+          renderers.add(enclosure::listMonkeys);
+        }
+      }
+      String[] rendered = ParallelScans.renderEach(parallelPool, renderers);
+      for (int i = 0; i < rendered.length; i++) {
+        Enclosures enclosure = stale.get(i);
+        String fragment = rendered[i];
+        int slot = enclosure.getSpeciesType().ordinal();
+        fragments[slot] = reports.get(slot, enclosure.getVersion(), () -> fragment);
+      }
+    }
     for (Enclosures enclosure : enclosures) {
-      allMonkeys.addAll(enclosure.getMonkeys());
+      int slot = enclosure.getSpeciesType().ordinal();
+      if (fragments[slot] == null && !enclosure.getMonkeys().isEmpty()) {
+        fragments[slot] = enclosureFragment(enclosure);
+      }
     }
-    allMonkeys.sort(Comparator.comparing(Monkey::getName));
+    return fragments;
+  }
 
-    StringBuilder allMonkeysList = new StringBuilder();
+  /**
+   * Get the isolation list sorted by name together with every enclosure list.
+   * @return The name-ordered lists of every housing.
+   */
+  private List<List<Monkey>> nameOrderedLists() {
+    List<Monkey> isolated = new ArrayList<>(isolation.getMonkeys());
+    isolated.sort(Monkey.NAME_ORDER);
+    List<List<Monkey>> lists = new ArrayList<>(enclosures.length + 1);
+    lists.add(isolated);
+    for (Enclosures enclosure : enclosures) {
+      lists.add(enclosure.getMonkeys());
+    }
+    return lists;
+  }
 
-    allMonkeysList.append("All monkeys housed in the Sanctuary:\n");
-    for(Monkey monkey : allMonkeys) {
-      allMonkeysList.append("Name: ").append(monkey.getName())
-              .append(", Sex: ").append(monkey.getSex())
-              .append(", Favorite Food: ").append(monkey.getFavoriteFood())
-              .append(", Housing Status: ").append(monkey.getStatus())
-              .append("\n");
+  /**
+   * Get the cached listing of a single enclosure's monkeys.
+   * @param enclosure The enclosure to list.
+   * @return The enclosure's monkey list.
+   */
+  private String enclosureFragment(Enclosures enclosure) {
+    return reports.get(enclosure.getSpeciesType().ordinal(), enclosure.getVersion(), enclosure::listMonkeys);
+  }
+
+  /**
+   * Combine the versions of every enclosure. Versions only ever grow,
+   * so the sum changes whenever any enclosure changes.
+   * @return The combined version of all enclosures.
+   */
+  private long enclosuresVersion() {
+    long version = 0;
+    for (Enclosures enclosure : enclosures) {
+      version += enclosure.getVersion();
     }
-    return allMonkeysList.toString();
+    return version;
+  }
+
+  /**
+   * Turn the report cache on or off. While off, every listing is rendered again.
+   * @param enabled True to serve unchanged listings from the cache.
+   */
+  public void setReportCacheEnabled(boolean enabled) {
+    reports.setEnabled(enabled);
+  }
+
+  /**
+   * Get the number of listings served from the report cache.
+   * @return The number of report cache hits.
+   */
+  public long getReportCacheHits() {
+    return reports.getHits();
+  }
+
+  /**
+   * Get the number of listings that had to be rendered.
+   * @return The number of report cache misses.
+   */
+  public long getReportCacheMisses() {
+    return reports.getMisses();
+  }
+
+  /**
+   * Count all the monkeys housed in the sanctuary.
+   * @return The number of monkeys in isolation and in every enclosure.
+   */
+  public int size() {
+    return housedCount();
+  }
+
+  private int housedCount() {
+    int size = isolation.getMonkeys().size();
+    for (Enclosures enclosure : enclosures) {
+      size += enclosure.getMonkeys().size();
+    }
+    return size;
+  }
+
+  /**
+   * Get a monkey by its position across the housings, without copying any list.
+   * Monkeys in isolation come first, followed by each enclosure in species order,
+   * with each enclosure's monkeys in name order.
+   * @param index The position of the monkey, from 0 to size() - 1.
+   * @return The monkey at that position.
+   * @throws IndexOutOfBoundsException if the index is out of range.
+   */
+  public Monkey monkeyAt(int index) {
+    if (index < 0) {
+      throw new IndexOutOfBoundsException("Index: " + index);
+    }
+    List<Monkey> isolated = isolation.getMonkeys();
+    if (index < isolated.size()) {
+      return isolated.get(index);
+    }
+    int offset = index - isolated.size();
+    for (Enclosures enclosure : enclosures) {
+      List<Monkey> housed = enclosure.getMonkeys();
+      if (offset < housed.size()) {
+        return housed.get(offset);
+      }
+      offset -= housed.size();
+    }
+    throw new IndexOutOfBoundsException("Index: " + index);
+  }
+
+  /**
+   * Iterate over all the monkeys housed in the sanctuary in alphabetical order.
+   * The enclosures are already kept in name order, so they are merged directly;
+   * only the small isolation list is sorted into a copy.
+   * @return An iterator over every monkey in the sanctuary, ordered by name.
+   */
+  public Iterator<Monkey> monkeysByName() {
+    return new NameOrderIterator(nameOrderedLists());
+  }
+
+  /**
+   * Summarize the number and total weight of monkeys favoring each food, per housing status.
+   * The summary is read from running counters, without looking at any monkey.
+   * @return The food summary of the whole sanctuary.
+   */
+  public FoodSummary foodSummary() {
+    return new FoodSummary(this.food, null);
+  }
+
+  /**
+   * Summarize the number and total weight of monkeys favoring each food in one enclosure.
+   * @param species The species of the enclosure.
+   * @return The food summary of the enclosure, with every monkey under the ENCLOSURE status.
+   */
+  public FoodSummary foodSummary(Species species) {
+    return new FoodSummary(this.food, species);
+  }
+
+  /**
+   * Start a query over every monkey registered in the sanctuary, including monkeys
+   * waiting for an isolation cage. Healing must go through healMonkey for the
+   * query indexes to see it.
+   * @return A query matching every monkey, to be narrowed with conditions.
+   */
+  public SanctuaryQuery query() {
+    return new SanctuaryQuery(this, this.index);
+  }
+
+  /**
+   * Run a read that spans several housings or the food counters. Subclasses that
+   * guard the housings with locks take all of them here, so the read sees one state.
+   * @param read The read to run.
+   * @return The result of the read.
+   */
+  <T> T readHousings(Supplier<T> read) {
+    return read.get();
+  }
+
+  /**
+   * Check whether a monkey with the given name is registered in the sanctuary.
+   * @param name The name of the monkey.
+   * @return True if a monkey with this name is housed in isolation or an enclosure.
+   */
+  public boolean containsName(String name){
+    return this.registry.containsKey(name);
+  }
+
+  /**
+   * Find the monkey registered under the given name.
+   * @param name The name of the monkey.
+   * @return The monkey with this name, or null if no such monkey is registered.
+   */
+  public Monkey findByName(String name){
+    return this.registry.get(name);
+  }
+
+  /**
+   * Retrieves the event bus on which the sanctuary publishes its changes.
+   * @return The event bus.
+   */
+  public SanctuaryEventBus getEventBus(){
+    return this.events;
   }
 
   /**
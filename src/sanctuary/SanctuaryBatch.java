@@ -0,0 +1,248 @@
+package sanctuary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs a command script against a sanctuary without any user interface.
+ * Each line holds one command with comma-separated fields; blank lines and lines
+ * starting with '#' are skipped:
+ * <pre>
+ *   register,Coco,DRILL,Female,Small,12.5,3,NUTS,yes
+ *   heal,Coco
+ *   move,Coco
+ *   list,all
+ *   list,enclosures
+ *   list,enclosure,DRILL
+ * </pre>
+ * Registrations take the same fields as a MonkeyCsvReader row. The script runs as a
+ * two-stage pipeline: a reader thread parses lines into commands, monkeys included,
+ * while the calling thread runs the commands parsed so far through the service.
+ * Listings are written to the output as they run. A failing command is reported with
+ * its line number and the script carries on.
+ */
+public class SanctuaryBatch {
+  private static final int QUEUE_CAPACITY = 1024;
+  private static final Command END = new Command(0, "", new String[0]);
+
+  private final SanctuaryService service;
+  private final Appendable out;
+  private final Appendable errors;
+
+  /**
+   * Constructor for creating a batch runner.
+   * @param service The service to run commands through.
+   * @param out Receives the listings.
+   * @param errors Receives one line per failed command.
+   */
+  public SanctuaryBatch(SanctuaryService service, Appendable out, Appendable errors) {
+    this.service = service;
+    this.out = out;
+    this.errors = errors;
+  }
+
+  /**
+   * Run every command of a script.
+   * @param script The script to read.
+   * @return The number of commands run and failed, and the time taken.
+   * @throws IOException if the script cannot be read or the output cannot be written.
+   * @throws InterruptedException if the calling thread is interrupted.
+   */
+  public Result run(Reader script) throws IOException, InterruptedException {
+    BlockingQueue<Command> commands = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    IOException[] readFailure = new IOException[1];
+    Thread parser = new Thread(() -> {
+      try {
+        parse(script, commands);
+      } catch (IOException ex) {
+        readFailure[0] = ex;
+      } catch (InterruptedException ex) {
+        return;
+      }
+      try {
+        commands.put(END);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }, "sanctuary-batch-parser");
+    parser.setDaemon(true);
+    long start = System.nanoTime();
+    parser.start();
+    long run = 0;
+    long failed = 0;
+    try {
+      for (Command command = commands.take(); command != END; command = commands.take()) {
+        run++;
+        try {
+          execute(command);
+        } catch (IllegalArgumentException ex) {
+          failed++;
+          errors.append("line ").append(Long.toString(command.line)).append(": ")
+                  .append(String.valueOf(ex.getMessage())).append('\n');
+        }
+      }
+    } finally {
+      parser.interrupt();
+    }
+    parser.join();
+    if (readFailure[0] != null) {
+      throw readFailure[0];
+    }
+    return new Result(run, failed, System.nanoTime() - start);
+  }
+
+  /**
+   * Read and split every line of the script, parsing the monkey of each registration.
+   */
+  private static void parse(Reader script, BlockingQueue<Command> commands) throws IOException, InterruptedException {
+    BufferedReader lines = script instanceof BufferedReader ? (BufferedReader) script : new BufferedReader(script);
+    long number = 0;
+    String line;
+    while ((line = lines.readLine()) != null) {
+      number++;
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      String[] fields = trimmed.split(",", -1);
+      for (int i = 0; i < fields.length; i++) {
+        fields[i] = fields[i].trim();
+      }
+      Command command = new Command(number, fields[0].toLowerCase(Locale.ROOT), fields);
+      if (command.verb.equals("register") && fields.length == 9) {
+        try {
+          command.monkey = MonkeyCsvReader.parseFields(Arrays.copyOfRange(fields, 1, 9));
+        } catch (IllegalArgumentException ex) {
+          command.error = ex.getMessage();
+        }
+      }
+      commands.put(command);
+    }
+  }
+
+  /**
+   * Run one command through the service.
+   * @throws IllegalArgumentException if the command is malformed or fails.
+   */
+  private void execute(Command command) throws IOException {
+    if (command.error != null) {
+      throw new IllegalArgumentException(command.error);
+    }
+    String[] fields = command.fields;
+    switch (command.verb) {
+      case "register":
+        expect(command, 9);
+        if (!service.register(command.monkey)) {
+          throw new IllegalArgumentException("Monkey with this name is already registered.");
+        }
+        break;
+      case "heal":
+        expect(command, 2);
+        service.heal(fields[1]);
+        break;
+      case "move":
+        expect(command, 2);
+        service.moveToEnclosure(fields[1]);
+        break;
+      case "list":
+        if (fields.length == 2 && fields[1].equalsIgnoreCase("all")) {
+          service.writeAllMonkeysList(out);
+        } else if (fields.length == 2 && fields[1].equalsIgnoreCase("enclosures")) {
+          service.writeMonkeysInAllEnclosures(out);
+        } else if (fields.length == 3 && fields[1].equalsIgnoreCase("enclosure")) {
+          service.writeMonkeysInOneEnclosure(Species.valueOf(fields[2].toUpperCase(Locale.ROOT)), out);
+        } else {
+          throw new IllegalArgumentException("Expected list,all or list,enclosures or list,enclosure,<species>");
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown command: " + fields[0]);
+    }
+  }
+
+  private static void expect(Command command, int fields) {
+    if (command.fields.length != fields) {
+      throw new IllegalArgumentException("Expected " + fields + " fields for " + command.verb
+              + " but found " + command.fields.length);
+    }
+  }
+
+  /**
+   * One parsed line of a script.
+   */
+  private static class Command {
+    private final long line;
+    private final String verb;
+    private final String[] fields;
+    private Monkey monkey;
+    private String error;
+
+    Command(long line, String verb, String[] fields) {
+      this.line = line;
+      this.verb = verb;
+      this.fields = fields;
+    }
+  }
+
+  /**
+   * The outcome of running a script.
+   */
+  public static class Result {
+    private final long commands;
+    private final long failures;
+    private final long elapsedNanos;
+
+    Result(long commands, long failures, long elapsedNanos) {
+      this.commands = commands;
+      this.failures = failures;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the number of commands run, including failed ones.
+     * @return The number of commands.
+     */
+    public long getCommands() {
+      return commands;
+    }
+
+    /**
+     * Get the number of commands that failed.
+     * @return The number of failures.
+     */
+    public long getFailures() {
+      return failures;
+    }
+
+    /**
+     * Get the time taken to read and run the script.
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Get the throughput of the run.
+     * @return The number of commands run per second.
+     */
+    public double getCommandsPerSecond() {
+      return elapsedNanos == 0 ? 0 : commands * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Describe the run, such as "Ran 1000 commands (2 failed) in 12.5 ms, 80000 commands/s".
+     * @return The description.
+     */
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "Ran %d commands (%d failed) in %.1f ms, %.0f commands/s",
+              commands, failures, elapsedNanos / 1e6, getCommandsPerSecond());
+    }
+  }
+}
@@ -0,0 +1,340 @@
+package sanctuary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A regional network of sanctuaries, one per site, run as shards of a single registry.
+ * Monkeys are placed at a named site or, when no site is given, at the site picked by
+ * the hash of their name. Names are unique across the whole network: a shared map from
+ * name to site is claimed before a monkey is registered at its site, so two sites can
+ * never accept the same name at the same time.
+ *
+ * <p>Network-wide listings and scans fan out to every site in parallel and combine the
+ * results in order. A monkey can be transferred to another site, where it arrives in
+ * isolation like any new intake. Registrations and transfers must go through the
+ * cluster for the names to stay unique; moves and listings at one site may use the
+ * site's sanctuary directly. For the cluster to be shared by several threads, the
+ * sanctuaries must be thread-safe, such as ConcurrentSanctuary.
+ */
+public class SanctuaryCluster {
+  private static final String ALL_MONKEYS_HEADER = "All monkeys housed in the Sanctuary network:\n";
+
+  private final List<String> sites;
+  private final Sanctuary[] shards;
+  private final Map<String, Integer> siteShards;
+  private final Map<String, Integer> owners;
+  private final Object transferLock = new Object();
+  private ForkJoinPool pool;
+
+  /**
+   * Constructor for creating a network of empty thread-safe sanctuaries.
+   * @param sites The names of the sites, in listing order.
+   * @param isolationCapacity The number of isolation cages at each site.
+   * @param waitingCapacity The number of monkeys that may wait for an isolation cage at each site.
+   * @throws IllegalArgumentException if no site is given or a site name is repeated.
+   */
+  public SanctuaryCluster(List<String> sites, int isolationCapacity, int waitingCapacity) {
+    this(newSanctuaries(sites, isolationCapacity, waitingCapacity));
+  }
+
+  /**
+   * Constructor for creating a network of existing sanctuaries.
+   * Monkeys already registered at a site are claimed for that site.
+   * @param sanctuaries The sanctuary of each site, in listing order.
+   * @throws IllegalArgumentException if no site is given or a name is registered at two sites.
+   */
+  public SanctuaryCluster(Map<String, ? extends Sanctuary> sanctuaries) {
+    if (sanctuaries.isEmpty()) {
+      throw new IllegalArgumentException("A cluster needs at least one site");
+    }
+    this.sites = Collections.unmodifiableList(new ArrayList<>(sanctuaries.keySet()));
+    this.shards = new Sanctuary[sites.size()];
+    this.siteShards = new HashMap<>();
+    this.owners = new ConcurrentHashMap<>();
+    this.pool = ForkJoinPool.commonPool();
+    for (int shard = 0; shard < shards.length; shard++) {
+      String site = sites.get(shard);
+      Sanctuary sanctuary = sanctuaries.get(site);
+      if (sanctuary == null) {
+        throw new IllegalArgumentException("Site " + site + " has no sanctuary");
+      }
+      shards[shard] = sanctuary;
+      siteShards.put(site, shard);
+      for (Monkey monkey : sanctuary.query().list()) {
+        Integer other = owners.putIfAbsent(monkey.getName(), shard);
+        if (other != null) {
+          throw new IllegalArgumentException("Monkey " + monkey.getName() + " is registered at both "
+                  + sites.get(other) + " and " + site);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the names of the sites, in listing order.
+   * @return A read-only list of the site names.
+   */
+  public List<String> getSites() {
+    return this.sites;
+  }
+
+  /**
+   * Get the sanctuary of a site.
+   * @param site The name of the site.
+   * @return The site's sanctuary.
+   * @throws IllegalArgumentException if there is no such site.
+   */
+  public Sanctuary getSanctuary(String site) {
+    return shards[shard(site)];
+  }
+
+  /**
+   * Choose where the network-wide listings and scans fan out.
+   * @param pool The fork/join pool to run on.
+   * @throws IllegalArgumentException if the pool is missing.
+   */
+  public void setPool(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Fan-out needs a pool");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * Get the site a name hashes to, where addToIsolation(Monkey) registers it.
+   * @param name The name of the monkey.
+   * @return The name of the site.
+   */
+  public String siteFor(String name) {
+    return sites.get(Math.floorMod(name.hashCode(), shards.length));
+  }
+
+  /**
+   * Get the site a monkey is registered at.
+   * @param name The name of the monkey.
+   * @return The name of the site, or null if no site has a monkey with this name.
+   */
+  public String siteOf(String name) {
+    Integer shard = owners.get(name);
+    return shard == null ? null : sites.get(shard);
+  }
+
+  /**
+   * Check whether a monkey with the given name is registered at any site.
+   * @param name The name of the monkey.
+   * @return True if the name is taken in the network.
+   */
+  public boolean containsName(String name) {
+    return owners.containsKey(name);
+  }
+
+  /**
+   * Find the monkey registered under the given name at any site.
+   * @param name The name of the monkey.
+   * @return The monkey with this name, or null if no site has it.
+   */
+  public Monkey findByName(String name) {
+    Integer shard = owners.get(name);
+    return shard == null ? null : shards[shard].findByName(name);
+  }
+
+  /**
+   * Register a monkey at the site its name hashes to.
+   * @param monkey The monkey to be added to isolation.
+   * @throws IllegalArgumentException if the name is taken at any site or the site cannot admit the monkey.
+   */
+  public void addToIsolation(Monkey monkey) {
+    addToIsolation(siteFor(monkey.getName()), monkey);
+  }
+
+  /**
+   * Register a monkey at a site, in its isolation or waiting queue.
+   * @param site The name of the site.
+   * @param monkey The monkey to be added to isolation.
+   * @throws IllegalArgumentException if there is no such site, the name is taken at any site
+   *     or the site cannot admit the monkey.
+   */
+  public void addToIsolation(String site, Monkey monkey) {
+    int shard = shard(site);
+    if (owners.putIfAbsent(monkey.getName(), shard) != null) {
+      throw new IllegalArgumentException("Monkey is already added!");
+    }
+    try {
+      shards[shard].addToIsolation(monkey);
+    } catch (RuntimeException ex) {
+      owners.remove(monkey.getName(), shard);
+      throw ex;
+    }
+  }
+
+  /**
+   * Move a monkey from isolation to its enclosure at the site it is registered at.
+   * @param monkey The monkey to be moved to the enclosure.
+   * @throws IllegalArgumentException if the monkey is not found or cannot be moved.
+   */
+  public void moveToEnclosure(Monkey monkey) {
+    sanctuaryOf(monkey).moveToEnclosure(monkey);
+  }
+
+  /**
+   * Mark a monkey as healed at the site it is registered at.
+   * @param monkey The monkey that received medical attention.
+   * @throws IllegalArgumentException if the monkey is not found.
+   */
+  public void healMonkey(Monkey monkey) {
+    sanctuaryOf(monkey).healMonkey(monkey);
+  }
+
+  /**
+   * Transfer a monkey to another site. The monkey is registered at the new site first,
+   * arriving in isolation or its waiting queue, and only then released from the old
+   * site, so a transfer the new site cannot admit leaves both sites unchanged.
+   * The monkey arrives as a new record with the same details.
+   * @param name The name of the monkey.
+   * @param site The name of the site to transfer it to.
+   * @return The monkey as registered at the new site.
+   * @throws IllegalArgumentException if the monkey or the site is not found, the monkey
+   *     is already at that site, is not healthy, or the site cannot admit it.
+   */
+  public Monkey transfer(String name, String site) {
+    int to = shard(site);
+    synchronized (transferLock) {
+      Integer from = owners.get(name);
+      Monkey monkey = from == null ? null : shards[from].findByName(name);
+      if (monkey == null) {
+        throw new IllegalArgumentException("Monkey is not found!");
+      }
+      if (from == to) {
+        throw new IllegalArgumentException("Monkey is already at " + site);
+      }
+      if (!monkey.isHealthy()) {
+        throw new IllegalArgumentException("Monkey is unhealthy.");
+      }
+      Monkey arrival = new Monkey(monkey.getName(), monkey.getSpecies(), monkey.getSex(), monkey.getSize(),
+              monkey.getWeight(), monkey.getAge(), monkey.getFavoriteFood(), true);
+      shards[to].addToIsolation(arrival);
+      try {
+        shards[from].release(monkey);
+      } catch (RuntimeException ex) {
+        shards[to].release(arrival);
+        throw ex;
+      }
+      owners.put(name, to);
+      return arrival;
+    }
+  }
+
+  /**
+   * Count the monkeys housed at every site.
+   * @return The number of monkeys in isolation and in enclosures across the network.
+   */
+  public int size() {
+    int size = 0;
+    for (Sanctuary shard : shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  /**
+   * Iterate over the monkeys housed at every site in alphabetical order.
+   * Each site takes its name-ordered snapshot in parallel and the snapshots are merged.
+   * @return An iterator over every monkey in the network, ordered by name.
+   */
+  public Iterator<Monkey> monkeysByName() {
+    List<Supplier<List<Monkey>>> snapshots = new ArrayList<>(shards.length);
+    for (Sanctuary shard : shards) {
+      snapshots.add(() -> {
+        List<Monkey> monkeys = new ArrayList<>();
+        shard.monkeysByName().forEachRemaining(monkeys::add);
+        return monkeys;
+      });
+    }
+    return new NameOrderIterator(ParallelScans.each(pool, snapshots));
+  }
+
+  /**
+   * List all the monkeys housed at every site, sorted by name.
+   * @return A formatted string with the same rows as Sanctuary.allMonkeysList().
+   */
+  public String allMonkeysList() {
+    StringBuilder list = new StringBuilder();
+    try {
+      writeAllMonkeysList(list);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return list.toString();
+  }
+
+  /**
+   * Write the list of all the monkeys housed at every site, sorted by name.
+   * @param out Receives the list.
+   * @throws IOException if the output cannot be written.
+   */
+  public void writeAllMonkeysList(Appendable out) throws IOException {
+    out.append(ALL_MONKEYS_HEADER);
+    RowFormatter rows = RowFormatter.forThread();
+    Iterator<Monkey> monkeys = monkeysByName();
+    while (monkeys.hasNext()) {
+      rows.listingRow(out, monkeys.next());
+    }
+    rows.flush(out);
+  }
+
+  /**
+   * Collect the monkeys accepted by a filter from every site, scanning the sites in parallel.
+   * @param filter The condition a monkey must meet.
+   * @return The accepted monkeys, in site order and then in each site's scan order.
+   */
+  public List<Monkey> scan(Predicate<Monkey> filter) {
+    List<Supplier<List<Monkey>>> scans = new ArrayList<>(shards.length);
+    for (Sanctuary shard : shards) {
+      scans.add(() -> shard.scan(filter));
+    }
+    List<Monkey> accepted = new ArrayList<>();
+    for (List<Monkey> found : ParallelScans.each(pool, scans)) {
+      accepted.addAll(found);
+    }
+    return accepted;
+  }
+
+  private int shard(String site) {
+    Integer shard = siteShards.get(site);
+    if (shard == null) {
+      throw new IllegalArgumentException("Unknown site: " + site);
+    }
+    return shard;
+  }
+
+  private Sanctuary sanctuaryOf(Monkey monkey) {
+    Integer shard = monkey == null ? null : owners.get(monkey.getName());
+    if (shard == null) {
+      throw new IllegalArgumentException("Monkey is not found!");
+    }
+    return shards[shard];
+  }
+
+  private static Map<String, Sanctuary> newSanctuaries(List<String> sites, int isolationCapacity,
+                                                       int waitingCapacity) {
+    Map<String, Sanctuary> sanctuaries = new LinkedHashMap<>();
+    for (String site : sites) {
+      if (sanctuaries.put(site, new ConcurrentSanctuary(isolationCapacity, waitingCapacity)) != null) {
+        throw new IllegalArgumentException("Site " + site + " is listed twice");
+      }
+    }
+    return sanctuaries;
+  }
+}
@@ -0,0 +1,75 @@
+package sanctuary;
+
+import java.util.Objects;
+
+/**
+ * Class representing a change to the sanctuary, published on its event bus.
+ * Two events are equal when they have the same type and concern the same monkey,
+ * which is how the bus recognises repeated events to coalesce within a batch.
+ */
+public class SanctuaryEvent {
+
+  /**
+   * The kinds of change the sanctuary publishes.
+   */
+  public enum Type {
+    /** A monkey was registered into isolation. */
+    REGISTERED,
+    /** A monkey was moved from isolation to its enclosure. */
+    MOVED,
+    /** A monkey was marked as healed. */
+    HEALED,
+    /** A monkey left the sanctuary, such as on a transfer to another site. */
+    RELEASED,
+    /** The isolation cage capacity changed. */
+    CAPACITY_CHANGED
+  }
+
+  private final Type type;
+  private final Monkey monkey;
+
+  /**
+   * Constructor for creating a new event.
+   * @param type The kind of change.
+   * @param monkey The monkey concerned, or null for changes to the sanctuary itself.
+   */
+  public SanctuaryEvent(Type type, Monkey monkey) {
+    this.type = type;
+    this.monkey = monkey;
+  }
+
+  /**
+   * Get the kind of change.
+   * @return The event type.
+   */
+  public Type getType() {
+    return this.type;
+  }
+
+  /**
+   * Get the monkey the change concerns.
+   * @return The monkey, or null for changes to the sanctuary itself.
+   */
+  public Monkey getMonkey() {
+    return this.monkey;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof SanctuaryEvent)) {
+      return false;
+    }
+    SanctuaryEvent event = (SanctuaryEvent) other;
+    return this.type == event.type && this.monkey == event.monkey;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.type, System.identityHashCode(this.monkey));
+  }
+
+  @Override
+  public String toString() {
+    return this.monkey == null ? this.type.toString() : this.type + " " + this.monkey.getName();
+  }
+}
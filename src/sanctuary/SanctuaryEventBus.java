@@ -0,0 +1,93 @@
+package sanctuary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lightweight event bus that delivers sanctuary changes to subscribers.
+ * Outside a batch each event is delivered as soon as it is published. Inside a batch
+ * events are held back, repeated events are coalesced into one, and subscribers
+ * receive the whole batch in a single call when the outermost batch ends.
+ * Batches are tracked per thread.
+ */
+public class SanctuaryEventBus {
+  private final List<SanctuaryEventListener> listeners = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<Batch> batches = new ThreadLocal<>();
+
+  /**
+   * Subscribe a listener to every event published from now on.
+   * @param listener The listener to add.
+   */
+  public void subscribe(SanctuaryEventListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Stop delivering events to a listener.
+   * @param listener The listener to remove.
+   */
+  public void unsubscribe(SanctuaryEventListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Publish an event, or hold it back if a batch is open on this thread.
+   * @param event The event to publish.
+   */
+  public void publish(SanctuaryEvent event) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    Batch batch = batches.get();
+    if (batch != null) {
+      batch.events.add(event);
+      return;
+    }
+    deliver(Collections.singletonList(event));
+  }
+
+  /**
+   * Run an action as a batch: its events are coalesced and delivered together when it ends.
+   * Batches may be nested; only the outermost one delivers.
+   * Events published before an action fails are still delivered.
+   * @param action The action to run.
+   */
+  public void batch(Runnable action) {
+    Batch batch = batches.get();
+    if (batch != null) {
+      action.run();
+      return;
+    }
+    batch = new Batch();
+    batches.set(batch);
+    try {
+      action.run();
+    } finally {
+      batches.remove();
+      if (!batch.events.isEmpty()) {
+        deliver(new ArrayList<>(batch.events));
+      }
+    }
+  }
+
+  /**
+   * Hand events to every subscriber.
+   * @param events The events to deliver.
+   */
+  private void deliver(List<SanctuaryEvent> events) {
+    for (SanctuaryEventListener listener : listeners) {
+      listener.onEvents(events);
+    }
+  }
+
+  /**
+   * Events held back by an open batch, without repeats.
+   */
+  private static class Batch {
+    private final Set<SanctuaryEvent> events = new LinkedHashSet<>();
+  }
+}
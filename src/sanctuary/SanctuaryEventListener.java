@@ -0,0 +1,15 @@
+package sanctuary;
+
+import java.util.List;
+
+/**
+ * Interface for objects that subscribe to changes published by a sanctuary.
+ */
+public interface SanctuaryEventListener {
+
+  /**
+   * Called on the publishing thread with one event, or with every event of a finished batch.
+   * @param events The events, in the order they were first published.
+   */
+  void onEvents(List<SanctuaryEvent> events);
+}
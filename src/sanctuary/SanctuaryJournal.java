@@ -0,0 +1,544 @@
+package sanctuary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of sanctuary mutations.
+ * Records are buffered in memory by the caller and written by a background thread
+ * with group commit: the file is forced to disk once per batch, either when enough
+ * records are pending or when the sync interval elapses, so callers never wait on fsync.
+ *
+ * <p>Each record is framed as length, CRC32 and payload. On recovery, replay stops at
+ * the first torn or corrupt record and the file is truncated there. Registrations
+ * store sex and size as ordinals; older registrations that stored them as text are
+ * still replayed. Capacity records carry no monkey name, only the new cage and
+ * waiting capacities of the isolation housing.
+ *
+ * <p>A journal starts with a generation record, and each truncation starts the next
+ * generation. A snapshot records the generation and byte offset of the journal it
+ * covers, so replay skips exactly the records the snapshot already contains, even when
+ * the journal was not truncated after the snapshot was written. Journals written before
+ * generations were recorded have no such record and are replayed in full.
+ */
+public class SanctuaryJournal implements Closeable {
+  static final byte REGISTER_WITH_TEXT = 1;
+  static final byte MOVE = 2;
+  static final byte HEAL = 3;
+  static final byte REGISTER = 4;
+  static final byte RELEASE = 5;
+  static final byte CAPACITY = 6;
+  static final byte GENERATION = 7;
+
+  private static final int HEADER_SIZE = 8;
+
+  private final FileChannel channel;
+  private final int syncEveryRecords;
+  private final long syncIntervalMillis;
+  private final Object lock = new Object();
+  private final Object channelLock = new Object();
+  private final Thread writer;
+  private final CRC32 crc = new CRC32();
+
+  private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+  private ByteBuffer writing = ByteBuffer.allocate(64 * 1024);
+  private int pendingRecords;
+  private long appendedRecords;
+  private long durableRecords;
+  private boolean flushRequested;
+  private boolean closed;
+  private IOException failure;
+  private long generation;
+  private boolean generationPending;
+
+  /**
+   * Constructor for opening a journal, creating the file if it does not exist.
+   * New records are appended after any records already in the file.
+   * @param path The journal file.
+   * @param syncEveryRecords The number of pending records that triggers a write and fsync.
+   * @param syncIntervalMillis The longest time a record waits before it is written and synced.
+   * @throws IOException if the file cannot be opened.
+   */
+  public SanctuaryJournal(Path path, int syncEveryRecords, long syncIntervalMillis) throws IOException {
+    this(path, 1, syncEveryRecords, syncIntervalMillis);
+  }
+
+  /**
+   * Constructor for opening a journal, creating the file if it does not exist.
+   * New records are appended after any records already in the file, which keeps its
+   * generation; an empty file starts the given generation.
+   * @param path The journal file.
+   * @param generation The generation of a new journal, different from that of any snapshot.
+   * @param syncEveryRecords The number of pending records that triggers a write and fsync.
+   * @param syncIntervalMillis The longest time a record waits before it is written and synced.
+   * @throws IOException if the file cannot be opened.
+   */
+  public SanctuaryJournal(Path path, long generation, int syncEveryRecords, long syncIntervalMillis)
+          throws IOException {
+    if (syncEveryRecords < 1 || syncIntervalMillis < 1) {
+      throw new IllegalArgumentException("Journal sync settings must be positive");
+    }
+    if (generation < 1) {
+      throw new IllegalArgumentException("Journal generation must be positive");
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    if (this.channel.size() == 0) {
+      this.generation = generation;
+      this.generationPending = true;
+    } else {
+      this.generation = readGeneration(this.channel);
+    }
+    this.channel.position(this.channel.size());
+    this.syncEveryRecords = syncEveryRecords;
+    this.syncIntervalMillis = syncIntervalMillis;
+    this.writer = new Thread(this::writeLoop, "sanctuary-journal");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Replay every intact record in a journal file onto a sanctuary, then cut off any torn tail.
+   * @param path The journal file. A missing file is treated as empty.
+   * @param sanctuary The sanctuary to apply the records to.
+   * @return The number of records replayed.
+   * @throws IOException if the file cannot be read.
+   */
+  public static long replay(Path path, Sanctuary sanctuary) throws IOException {
+    return replay(path, sanctuary, Position.NONE);
+  }
+
+  /**
+   * Replay the intact records in a journal file that a snapshot does not cover onto the
+   * sanctuary restored from it, then cut off any torn tail. If the journal is of the
+   * snapshot's generation, the records before the snapshot's offset are skipped;
+   * otherwise the journal was started after the snapshot and every record is replayed.
+   * Records are applied in the order their changes were made, starting from the state
+   * they were made in. Records are written before their change is applied, so a record
+   * whose change the sanctuary rejected, such as a move of an unhealthy monkey, is
+   * rejected again and skipped.
+   * @param path The journal file. A missing file is treated as empty.
+   * @param sanctuary The sanctuary to apply the records to.
+   * @param covered The journal position the sanctuary's snapshot covers, or Position.NONE.
+   * @return The number of records replayed.
+   * @throws IOException if the file cannot be read.
+   */
+  public static long replay(Path path, Sanctuary sanctuary, Position covered) throws IOException {
+    if (!Files.exists(path)) {
+      return 0;
+    }
+    long records = 0;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      CRC32 crc = new CRC32();
+      int good = 0;
+      while (buffer.remaining() >= HEADER_SIZE) {
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+          break;
+        }
+        ByteBuffer payload = buffer.slice();
+        payload.limit(length);
+        crc.reset();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+        if (payload.get(0) == GENERATION) {
+          buffer.position(buffer.position() + length);
+          if (covered.generation != 0 && payload.getLong(5) == covered.generation) {
+            long skipTo = Math.min(Math.max(covered.offset, buffer.position()), buffer.limit());
+            buffer.position((int) skipTo);
+          }
+          good = buffer.position();
+          continue;
+        }
+        try {
+          apply(payload, sanctuary);
+        } catch (IllegalArgumentException ex) {
+          // the change was rejected when it was first made, too
+        }
+        buffer.position(buffer.position() + length);
+        good = buffer.position();
+        records++;
+      }
+      if (good < channel.size()) {
+        channel.truncate(good);
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Record the registration of a monkey.
+   * @param monkey The monkey added to isolation.
+   */
+  public void registered(Monkey monkey) {
+    append(REGISTER, monkey);
+  }
+
+  /**
+   * Record the move of a monkey to its enclosure.
+   * @param monkey The monkey moved out of isolation.
+   */
+  public void moved(Monkey monkey) {
+    append(MOVE, monkey);
+  }
+
+  /**
+   * Record that a monkey was healed.
+   * @param monkey The healed monkey.
+   */
+  public void healed(Monkey monkey) {
+    append(HEAL, monkey);
+  }
+
+  /**
+   * Record that a monkey left the sanctuary.
+   * @param monkey The released monkey.
+   */
+  public void released(Monkey monkey) {
+    append(RELEASE, monkey);
+  }
+
+  /**
+   * Record a change to the capacities of the isolation housing.
+   * @param cageCapacity The number of isolation cages.
+   * @param waitingCapacity The number of monkeys that may wait for a cage.
+   */
+  public void capacityChanged(int cageCapacity, int waitingCapacity) {
+    append(CAPACITY, null, cageCapacity, waitingCapacity);
+  }
+
+  /**
+   * Block until every record appended so far has been written and synced to disk.
+   * @throws IOException if the journal could not be written.
+   */
+  public void flush() throws IOException {
+    synchronized (lock) {
+      long target = appendedRecords;
+      flushRequested = true;
+      lock.notifyAll();
+      while (durableRecords < target && failure == null) {
+        try {
+          lock.wait();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while flushing journal", ex);
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Flush pending records and get the position just after the last one.
+   * A snapshot taken before any further record is appended covers the journal up to here.
+   * @return The generation of the journal and the offset after its last record.
+   * @throws IOException if the journal could not be written.
+   */
+  public Position position() throws IOException {
+    flush();
+    long current;
+    synchronized (lock) {
+      current = generation;
+    }
+    synchronized (channelLock) {
+      return new Position(current, channel.size());
+    }
+  }
+
+  /**
+   * Discard every record in the journal, after flushing pending ones, and start the
+   * next generation. Used once the records are covered by a snapshot; the caller must
+   * make sure no records are appended while the journal is truncated.
+   * @throws IOException if the journal could not be written or truncated.
+   */
+  public void truncate() throws IOException {
+    flush();
+    synchronized (channelLock) {
+      channel.truncate(0);
+      channel.position(0);
+    }
+    synchronized (lock) {
+      generation++;
+      generationPending = true;
+    }
+  }
+
+  /**
+   * Get the size of the journal file.
+   * @return The size in bytes.
+   * @throws IOException if the size cannot be read.
+   */
+  public long size() throws IOException {
+    return channel.size();
+  }
+
+  /**
+   * Flush pending records and close the journal.
+   * @throws IOException if the journal could not be written or closed.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      synchronized (lock) {
+        closed = true;
+        lock.notifyAll();
+      }
+      try {
+        writer.join();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      channel.close();
+    }
+  }
+
+  private void append(byte op, Monkey monkey) {
+    append(op, monkey, 0, 0);
+  }
+
+  /**
+   * Encode a record into the pending buffer, preceded by the generation record if the
+   * journal is empty, and wake the writer if a batch is full.
+   */
+  private void append(byte op, Monkey monkey, int cageCapacity, int waitingCapacity) {
+    byte[] name = monkey == null ? new byte[0] : monkey.getName().getBytes(StandardCharsets.UTF_8);
+    synchronized (lock) {
+      if (failure != null) {
+        throw new UncheckedIOException("Journal is not writable", failure);
+      }
+      if (closed) {
+        throw new IllegalStateException("Journal is closed");
+      }
+      if (generationPending) {
+        put(GENERATION, new byte[0], null, 0, 0);
+        generationPending = false;
+      }
+      put(op, name, monkey, cageCapacity, waitingCapacity);
+      pendingRecords++;
+      appendedRecords++;
+      if (pendingRecords >= syncEveryRecords) {
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Frame one record into the pending buffer. Must be called while holding the lock.
+   */
+  private void put(byte op, byte[] name, Monkey monkey, int cageCapacity, int waitingCapacity) {
+    int length = 1 + 4 + name.length;
+    if (op == REGISTER) {
+      length += 5 + 8 + 4;
+    } else if (op == CAPACITY) {
+      length += 4 + 4;
+    } else if (op == GENERATION) {
+      length += 8;
+    }
+    if (pending.remaining() < HEADER_SIZE + length) {
+      ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + HEADER_SIZE + length));
+      pending.flip();
+      larger.put(pending);
+      pending = larger;
+    }
+    int start = pending.position();
+    pending.putInt(length).putInt(0).put(op).putInt(name.length).put(name);
+    if (op == REGISTER) {
+      pending.put((byte) monkey.getSpecies().ordinal())
+              .put((byte) monkey.getFavoriteFood().ordinal())
+              .put((byte) (monkey.isHealthy() ? 1 : 0))
+              .put((byte) monkey.getSex().ordinal())
+              .put((byte) monkey.getSize().ordinal())
+              .putDouble(monkey.getWeight())
+              .putInt(monkey.getAge());
+    } else if (op == CAPACITY) {
+      pending.putInt(cageCapacity).putInt(waitingCapacity);
+    } else if (op == GENERATION) {
+      pending.putLong(generation);
+    }
+    crc.reset();
+    crc.update(pending.array(), start + HEADER_SIZE, length);
+    pending.putInt(start + 4, (int) crc.getValue());
+  }
+
+  /**
+   * Background loop that writes and syncs pending records in batches.
+   */
+  private void writeLoop() {
+    while (true) {
+      long batchEnd;
+      synchronized (lock) {
+        try {
+          while (pendingRecords == 0 && !closed) {
+            lock.wait();
+          }
+          if (pendingRecords < syncEveryRecords && !flushRequested && !closed) {
+            lock.wait(syncIntervalMillis);
+          }
+        } catch (InterruptedException ex) {
+          return;
+        }
+        if (pendingRecords == 0) {
+          flushRequested = false;
+          if (closed) {
+            return;
+          }
+          continue;
+        }
+        ByteBuffer full = pending;
+        pending = writing;
+        writing = full;
+        pending.clear();
+        pendingRecords = 0;
+        batchEnd = appendedRecords;
+        flushRequested = false;
+      }
+      try {
+        synchronized (channelLock) {
+          writing.flip();
+          while (writing.hasRemaining()) {
+            channel.write(writing);
+          }
+          channel.force(false);
+        }
+        synchronized (lock) {
+          durableRecords = batchEnd;
+          lock.notifyAll();
+        }
+      } catch (IOException ex) {
+        synchronized (lock) {
+          failure = ex;
+          lock.notifyAll();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Apply one decoded record to the sanctuary.
+   */
+  private static void apply(ByteBuffer payload, Sanctuary sanctuary) {
+    byte op = payload.get();
+    String name = getString(payload);
+    if (op == REGISTER || op == REGISTER_WITH_TEXT) {
+      Species species = Species.values()[payload.get()];
+      Food food = Food.values()[payload.get()];
+      boolean healthy = payload.get() != 0;
+      Sex sex;
+      Size size;
+      if (op == REGISTER) {
+        sex = Sex.values()[payload.get()];
+        size = Size.values()[payload.get()];
+      } else {
+        sex = Sex.parse(getString(payload));
+        size = Size.parse(getString(payload));
+      }
+      double weight = payload.getDouble();
+      int age = payload.getInt();
+      if (!sanctuary.containsName(name)) {
+        sanctuary.addToIsolation(new Monkey(name, species, sex, size, weight, age, food, healthy));
+      }
+    } else if (op == CAPACITY) {
+      sanctuary.setIsolationCapacity(payload.getInt());
+      sanctuary.setWaitingCapacity(payload.getInt());
+    } else {
+      Monkey monkey = sanctuary.findByName(name);
+      if (monkey == null) {
+        return;
+      }
+      if (op == HEAL) {
+        sanctuary.healMonkey(monkey);
+      } else if (op == MOVE && monkey.getStatus() == Status.ISOLATION) {
+        sanctuary.moveToEnclosure(monkey);
+      } else if (op == RELEASE) {
+        sanctuary.release(monkey);
+      }
+    }
+  }
+
+  /**
+   * Read the generation record at the start of a journal file.
+   * @return The generation, or 0 for a journal written before generations were recorded.
+   */
+  private static long readGeneration(FileChannel channel) throws IOException {
+    int length = 1 + 4 + 8;
+    ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + length);
+    while (record.hasRemaining() && channel.read(record, record.position()) > 0) {
+      // read until the record is complete or the file ends
+    }
+    record.flip();
+    if (record.remaining() < HEADER_SIZE + length || record.getInt() != length) {
+      return 0;
+    }
+    int checksum = record.getInt();
+    CRC32 crc = new CRC32();
+    crc.update(record.duplicate());
+    if ((int) crc.getValue() != checksum || record.get() != GENERATION || record.getInt() != 0) {
+      return 0;
+    }
+    return record.getLong();
+  }
+
+  /**
+   * Read a length-prefixed UTF-8 string.
+   */
+  private static String getString(ByteBuffer payload) {
+    byte[] bytes = new byte[payload.getInt()];
+    payload.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * A point in a journal: the generation of the file and a byte offset within it.
+   */
+  public static final class Position {
+    /** The position of no journal, which makes replay apply every record. */
+    public static final Position NONE = new Position(0, 0);
+
+    private final long generation;
+    private final long offset;
+
+    /**
+     * Constructor for creating a journal position.
+     * @param generation The generation of the journal, or 0 for none.
+     * @param offset The byte offset within the journal.
+     */
+    public Position(long generation, long offset) {
+      this.generation = generation;
+      this.offset = offset;
+    }
+
+    /**
+     * Get the generation of the journal.
+     * @return The generation, or 0 for none.
+     */
+    public long getGeneration() {
+      return generation;
+    }
+
+    /**
+     * Get the byte offset within the journal.
+     * @return The offset.
+     */
+    public long getOffset() {
+      return offset;
+    }
+  }
+}
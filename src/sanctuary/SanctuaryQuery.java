@@ -0,0 +1,240 @@
+package sanctuary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Query over every monkey registered in a sanctuary, built by chaining conditions.
+ * For example, unhealthy howlers older than 10 that like insects:
+ * <pre>
+ *   sanctuary.query().species(Species.HOWLER).healthy(false).olderThan(10)
+ *       .favoriteFood(Food.INSECTS).list();
+ * </pre>
+ * Conditions on species, food, sex, size, status, health, weight and age are answered
+ * from the sanctuary's bitmap and sorted indexes: each condition becomes a bitmap of
+ * matching monkeys, and the bitmaps are intersected smallest first. Only conditions
+ * given with where() are checked monkey by monkey, and only on the monkeys left.
+ */
+public class SanctuaryQuery {
+  private final Sanctuary sanctuary;
+  private final MonkeyIndex index;
+  private final List<Function<MonkeyIndex, BitSet>> conditions = new ArrayList<>();
+  private final List<Predicate<Monkey>> filters = new ArrayList<>();
+
+  /**
+   * Constructor for creating a query that matches every monkey in the index.
+   * @param sanctuary The sanctuary to query, which guards each evaluation.
+   * @param index The indexes of the sanctuary to query.
+   */
+  SanctuaryQuery(Sanctuary sanctuary, MonkeyIndex index) {
+    this.sanctuary = sanctuary;
+    this.index = index;
+  }
+
+  /**
+   * Match monkeys of any of the given species.
+   * @param species The species to match.
+   * @return This query.
+   */
+  public SanctuaryQuery species(Species... species) {
+    List<Species> values = Arrays.asList(species);
+    conditions.add(index -> index.species(values));
+    return this;
+  }
+
+  /**
+   * Match monkeys with any of the given favorite foods.
+   * @param foods The foods to match.
+   * @return This query.
+   */
+  public SanctuaryQuery favoriteFood(Food... foods) {
+    List<Food> values = Arrays.asList(foods);
+    conditions.add(index -> index.foods(values));
+    return this;
+  }
+
+  /**
+   * Match monkeys of any of the given sexes.
+   * @param sexes The sexes to match.
+   * @return This query.
+   */
+  public SanctuaryQuery sex(Sex... sexes) {
+    List<Sex> values = Arrays.asList(sexes);
+    conditions.add(index -> index.sexes(values));
+    return this;
+  }
+
+  /**
+   * Match monkeys of any of the given sizes.
+   * @param sizes The sizes to match.
+   * @return This query.
+   */
+  public SanctuaryQuery size(Size... sizes) {
+    List<Size> values = Arrays.asList(sizes);
+    conditions.add(index -> index.sizes(values));
+    return this;
+  }
+
+  /**
+   * Match monkeys with any of the given housing statuses.
+   * Status.WAITING matches monkeys waiting for an isolation cage.
+   * @param statuses The statuses to match.
+   * @return This query.
+   */
+  public SanctuaryQuery status(Status... statuses) {
+    List<Status> values = Arrays.asList(statuses);
+    conditions.add(index -> index.statuses(values));
+    return this;
+  }
+
+  /**
+   * Match healthy or unhealthy monkeys.
+   * @param isHealthy True to match healthy monkeys, false for unhealthy ones.
+   * @return This query.
+   */
+  public SanctuaryQuery healthy(boolean isHealthy) {
+    conditions.add(index -> index.health(isHealthy));
+    return this;
+  }
+
+  /**
+   * Match monkeys whose weight is in a range.
+   * @param min The lowest weight, inclusive.
+   * @param max The highest weight, inclusive.
+   * @return This query.
+   */
+  public SanctuaryQuery weightBetween(double min, double max) {
+    conditions.add(index -> index.weights(min, max));
+    return this;
+  }
+
+  /**
+   * Match monkeys whose age is in a range.
+   * @param min The lowest age, inclusive.
+   * @param max The highest age, inclusive.
+   * @return This query.
+   */
+  public SanctuaryQuery ageBetween(int min, int max) {
+    conditions.add(index -> index.ages(min, max));
+    return this;
+  }
+
+  /**
+   * Match monkeys older than an age.
+   * @param age The age to exceed.
+   * @return This query.
+   */
+  public SanctuaryQuery olderThan(int age) {
+    return age == Integer.MAX_VALUE ? ageBetween(1, 0) : ageBetween(age + 1, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Match monkeys accepted by a predicate, for conditions the indexes cannot answer.
+   * The predicate is only checked on monkeys that meet every indexed condition.
+   * @param filter The predicate to check.
+   * @return This query.
+   */
+  public SanctuaryQuery where(Predicate<Monkey> filter) {
+    filters.add(filter);
+    return this;
+  }
+
+  /**
+   * Get the matching monkeys in registration order.
+   * @return A new list of the matching monkeys.
+   */
+  public List<Monkey> list() {
+    return sanctuary.readHousings(() -> {
+      List<Monkey> result = new ArrayList<>();
+      synchronized (index) {
+        BitSet ids = evaluate();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+          Monkey monkey = index.get(id);
+          if (accepts(monkey)) {
+            result.add(monkey);
+          }
+        }
+      }
+      return result;
+    });
+  }
+
+  /**
+   * Count the matching monkeys. Without where() conditions only bitmaps are counted.
+   * @return The number of matching monkeys.
+   */
+  public int count() {
+    if (filters.isEmpty()) {
+      return sanctuary.readHousings(() -> {
+        synchronized (index) {
+          return evaluate().cardinality();
+        }
+      });
+    }
+    return list().size();
+  }
+
+  /**
+   * Sum the weights of the matching monkeys.
+   * @return The total weight.
+   */
+  public double totalWeight() {
+    double total = 0;
+    for (Monkey monkey : list()) {
+      total += monkey.getWeight();
+    }
+    return total;
+  }
+
+  /**
+   * Sum the weights of the matching monkeys for each favorite food.
+   * @return The total weight per food, with every food present.
+   */
+  public Map<Food, Double> totalWeightByFood() {
+    Map<Food, Double> totals = new EnumMap<>(Food.class);
+    for (Food food : Food.values()) {
+      totals.put(food, 0.0);
+    }
+    for (Monkey monkey : list()) {
+      totals.merge(monkey.getFavoriteFood(), monkey.getWeight(), Double::sum);
+    }
+    return totals;
+  }
+
+  /**
+   * Intersect the bitmaps of the indexed conditions, smallest first, stopping
+   * as soon as nothing is left. Must be called while holding the index lock.
+   * @return The ids matching every indexed condition.
+   */
+  private BitSet evaluate() {
+    if (conditions.isEmpty()) {
+      return index.all();
+    }
+    List<BitSet> bitmaps = new ArrayList<>(conditions.size());
+    for (Function<MonkeyIndex, BitSet> condition : conditions) {
+      bitmaps.add(condition.apply(index));
+    }
+    bitmaps.sort(Comparator.comparingInt(BitSet::cardinality));
+    BitSet result = bitmaps.get(0);
+    for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+      result.and(bitmaps.get(i));
+    }
+    return result;
+  }
+
+  private boolean accepts(Monkey monkey) {
+    for (Predicate<Monkey> filter : filters) {
+      if (!filter.test(monkey)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
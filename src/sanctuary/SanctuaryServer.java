@@ -0,0 +1,376 @@
+package sanctuary;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded HTTP server exposing the sanctuary as a JSON API for headless clients.
+ * <pre>
+ *   GET  /monkeys                 every housed monkey, ordered by name
+ *   POST /monkeys                 register the monkey in the body into isolation
+ *   GET  /monkeys/{name}          one monkey
+ *   POST /monkeys/{name}/move     move a monkey from isolation to its enclosure
+ *   POST /monkeys/{name}/heal     mark a monkey as healed
+ *   GET  /enclosures/{species}    the monkeys in one enclosure, ordered by name
+ *   GET  /query                   the monkeys matching the query parameters
+ *   GET  /query/count             the number of monkeys matching the query parameters
+ * </pre>
+ * Query parameters are species, favoriteFood, sex, size and status, each taking
+ * comma-separated values (status WAITING matches monkeys waiting for a cage), healthy,
+ * and minWeight, maxWeight, minAge and maxAge.
+ *
+ * <p>Requests are handled on a pool of worker threads and go through a SanctuaryService,
+ * so the server can share a sanctuary with the Controller.
+ * Responses copy the monkeys, with their health and status, under the lock and then
+ * write them as JSON without holding it. Species, foods and statuses are matched in
+ * any case. Connections are kept alive between requests. The JDK server
+ * writes the headers and the body of a response separately, so launch the JVM with
+ * -Dsun.net.httpserver.nodelay=true; otherwise each body waits for the client's
+ * delayed acknowledgement of the headers. Controller.main sets the flag when it is not given.
+ * Failures of the request answer 400, or 404 for a missing monkey; any other failure,
+ * such as a journal that cannot be written, answers 500.
+ */
+public class SanctuaryServer implements Closeable {
+  private static final String JSON = "application/json; charset=utf-8";
+  private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
+  private final SanctuaryService service;
+  private final Sanctuary sanctuary;
+  private final HttpServer server;
+  private final ExecutorService workers;
+
+  /**
+   * Constructor for creating a server for a sanctuary on a local port.
+   * @param sanctuary The sanctuary to serve.
+   * @param port The port on the loopback address, or 0 to pick a free port.
+   * @throws IOException if the port cannot be bound.
+   */
+  public SanctuaryServer(Sanctuary sanctuary, int port) throws IOException {
+    this(new SanctuaryService(sanctuary), new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+  }
+
+  /**
+   * Constructor for creating a server for a sanctuary shared with other users of the same service.
+   * @param service The service guarding the sanctuary to serve.
+   * @param address The address to listen on.
+   * @throws IOException if the address cannot be bound.
+   */
+  public SanctuaryServer(SanctuaryService service, InetSocketAddress address) throws IOException {
+    this.service = service;
+    this.sanctuary = service.getSanctuary();
+    this.server = HttpServer.create(address, 0);
+    AtomicInteger threads = new AtomicInteger();
+    this.workers = Executors.newCachedThreadPool(task -> {
+      Thread thread = new Thread(task, "sanctuary-http-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.server.setExecutor(workers);
+    this.server.createContext("/", this::handle);
+  }
+
+  /**
+   * Start accepting requests.
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * Get the port the server listens on.
+   * @return The port.
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stop accepting requests and stop the worker threads.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    workers.shutdown();
+  }
+
+  /**
+   * Route a request by its method and path, answering failures with a JSON error.
+   */
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      String[] path = segments(exchange.getRequestURI().getPath());
+      String method = exchange.getRequestMethod();
+      try {
+        if (path.length == 1 && path[0].equals("monkeys")) {
+          if (method.equals("GET")) {
+            stream(exchange, read(this::housedByName));
+          } else if (method.equals("POST")) {
+            Monkey monkey = MonkeyJson.toMonkey(MonkeyJson.readObject(body(exchange)));
+            if (!service.register(monkey)) {
+              throw new IllegalArgumentException("Monkey with this name is already registered.");
+            }
+            send(exchange, 201, monkey);
+          } else {
+            notAllowed(exchange, "GET, POST");
+          }
+        } else if (path.length == 2 && path[0].equals("monkeys")) {
+          if (!method.equals("GET")) {
+            notAllowed(exchange, "GET");
+            return;
+          }
+          send(exchange, 200, read(() -> find(path[1]).copy()));
+        } else if (path.length == 3 && path[0].equals("monkeys")
+                && (path[2].equals("move") || path[2].equals("heal"))) {
+          if (!method.equals("POST")) {
+            notAllowed(exchange, "POST");
+            return;
+          }
+          body(exchange);
+          Monkey monkey = write(() -> {
+            find(path[1]);
+            return (path[2].equals("move") ? service.moveToEnclosure(path[1]) : service.heal(path[1])).copy();
+          });
+          send(exchange, 200, monkey);
+        } else if (path.length == 2 && path[0].equals("enclosures")) {
+          if (!method.equals("GET")) {
+            notAllowed(exchange, "GET");
+            return;
+          }
+          Species species = MonkeyJson.constant(Species.class, path[1]);
+          stream(exchange, read(() -> copies(sanctuary.getEnclosure(species).getMonkeys())));
+        } else if ((path.length == 1 || path.length == 2) && path[0].equals("query") && method.equals("GET")) {
+          SanctuaryQuery query = query(exchange.getRequestURI().getRawQuery());
+          if (path.length == 1) {
+            stream(exchange, read(() -> copies(query.list())));
+          } else if (path[1].equals("count")) {
+            send(exchange, 200, "{\"count\":" + read(query::count) + "}");
+          } else {
+            error(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+          }
+        } else {
+          error(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+        }
+      } catch (NotFoundException ex) {
+        error(exchange, 404, ex.getMessage());
+      } catch (IllegalArgumentException ex) {
+        error(exchange, 400, ex.getMessage());
+      } catch (RuntimeException ex) {
+        error(exchange, 500, "Internal error: " + ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Copy the monkeys housed in the sanctuary, ordered by name.
+   */
+  private List<Monkey> housedByName() {
+    List<Monkey> monkeys = new ArrayList<>(sanctuary.size());
+    Iterator<Monkey> byName = sanctuary.monkeysByName();
+    while (byName.hasNext()) {
+      monkeys.add(byName.next().copy());
+    }
+    return monkeys;
+  }
+
+  /**
+   * Copy monkeys so their health and status can be written after the lock is released.
+   */
+  private static List<Monkey> copies(Collection<Monkey> monkeys) {
+    List<Monkey> copies = new ArrayList<>(monkeys.size());
+    for (Monkey monkey : monkeys) {
+      copies.add(monkey.copy());
+    }
+    return copies;
+  }
+
+  private Monkey find(String name) {
+    Monkey monkey = sanctuary.findByName(name);
+    if (monkey == null) {
+      throw new NotFoundException("Monkey is not found!");
+    }
+    return monkey;
+  }
+
+  /**
+   * Build a query from URL query parameters.
+   */
+  private SanctuaryQuery query(String rawQuery) {
+    SanctuaryQuery query = sanctuary.query();
+    for (Map.Entry<String, String> parameter : parameters(rawQuery).entrySet()) {
+      String value = parameter.getValue();
+      String[] values = value.split(",");
+      switch (parameter.getKey()) {
+        case "species":
+          query.species(Arrays.stream(values).map(name -> MonkeyJson.constant(Species.class, name))
+                  .toArray(Species[]::new));
+          break;
+        case "favoriteFood":
+          query.favoriteFood(Arrays.stream(values).map(name -> MonkeyJson.constant(Food.class, name))
+                  .toArray(Food[]::new));
+          break;
+        case "sex":
+          query.sex(Arrays.stream(values).map(Sex::parse).toArray(Sex[]::new));
+          break;
+        case "size":
+          query.size(Arrays.stream(values).map(Size::parse).toArray(Size[]::new));
+          break;
+        case "status":
+          query.status(Arrays.stream(values).map(name -> MonkeyJson.constant(Status.class, name))
+                  .toArray(Status[]::new));
+          break;
+        case "healthy":
+          if (!value.equals("true") && !value.equals("false")) {
+            throw new IllegalArgumentException("Invalid boolean: " + value);
+          }
+          query.healthy(value.equals("true"));
+          break;
+        case "minWeight":
+          query.weightBetween(number(value), Double.MAX_VALUE);
+          break;
+        case "maxWeight":
+          query.weightBetween(-Double.MAX_VALUE, number(value));
+          break;
+        case "minAge":
+          query.ageBetween((int) number(value), Integer.MAX_VALUE);
+          break;
+        case "maxAge":
+          query.ageBetween(Integer.MIN_VALUE, (int) number(value));
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown query parameter: " + parameter.getKey());
+      }
+    }
+    return query;
+  }
+
+  private static double number(String value) {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid number: " + value);
+    }
+  }
+
+  private static Map<String, String> parameters(String rawQuery) {
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> parameters = new HashMap<>();
+    for (String pair : rawQuery.split("&")) {
+      int equals = pair.indexOf('=');
+      String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+      String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+      parameters.put(name, value);
+    }
+    return parameters;
+  }
+
+  private static String[] segments(String path) {
+    String trimmed = path.replaceAll("^/+|/+$", "");
+    return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+  }
+
+  private static String body(HttpExchange exchange) throws IOException {
+    try (InputStream in = exchange.getRequestBody()) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private <T> T read(Guarded<T> task) {
+    return service.read(guarded -> task.get());
+  }
+
+  private <T> T write(Guarded<T> task) {
+    return service.write(guarded -> task.get());
+  }
+
+  /**
+   * Stream monkeys as a JSON array with chunked encoding.
+   */
+  private static void stream(HttpExchange exchange, List<Monkey> monkeys) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", JSON);
+    exchange.sendResponseHeaders(200, 0);
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+            STREAM_BUFFER_SIZE)) {
+      out.write('[');
+      for (int i = 0; i < monkeys.size(); i++) {
+        if (i > 0) {
+          out.write(',');
+        }
+        MonkeyJson.write(out, monkeys.get(i));
+      }
+      out.write(']');
+    }
+  }
+
+  private static void send(HttpExchange exchange, int status, Monkey monkey) throws IOException {
+    StringWriter text = new StringWriter();
+    MonkeyJson.write(text, monkey);
+    send(exchange, status, text.toString());
+  }
+
+  private static void send(HttpExchange exchange, int status, String json) throws IOException {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", JSON);
+    exchange.sendResponseHeaders(status, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+
+  private static void error(HttpExchange exchange, int status, String message) throws IOException {
+    if (exchange.getResponseCode() != -1) {
+      // the headers of a streamed response are out, so closing the exchange cuts the body short
+      return;
+    }
+    StringWriter text = new StringWriter();
+    text.write("{\"error\":");
+    MonkeyJson.writeString(text, message == null ? "" : message);
+    text.write('}');
+    send(exchange, status, text.toString());
+  }
+
+  private static void notAllowed(HttpExchange exchange, String allowed) throws IOException {
+    exchange.getResponseHeaders().set("Allow", allowed);
+    error(exchange, 405, "Method not allowed");
+  }
+
+  /**
+   * Work run while holding a lock on the sanctuary.
+   */
+  private interface Guarded<T> {
+    T get();
+  }
+
+  /**
+   * Signals a request for a monkey or resource that does not exist.
+   */
+  private static class NotFoundException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    NotFoundException(String message) {
+      super(message);
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package sanctuary;
+
+import java.io.IOException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * The sanctuary's operations, independent of any user interface.
+ * The Swing Controller, the HTTP API and the command-line batch mode all go through
+ * a service, which guards the sanctuary with a read/write lock: changes hold the
+ * write lock and listings the read lock, so several front ends can share one sanctuary.
+ */
+public class SanctuaryService {
+  private final Sanctuary sanctuary;
+  private final ReadWriteLock lock;
+
+  /**
+   * Constructor for creating a service over a sanctuary.
+   * @param sanctuary The sanctuary to operate on.
+   */
+  public SanctuaryService(Sanctuary sanctuary) {
+    this.sanctuary = sanctuary;
+    this.lock = new ReentrantReadWriteLock();
+  }
+
+  /**
+   * Create a monkey from text fields, as entered in a form or a script.
+   * @param name The name.
+   * @param species The species constant, in any case.
+   * @param sex The sex, as accepted by Sex.parse.
+   * @param size The size, as accepted by Size.parse.
+   * @param weight The weight.
+   * @param age The age in years.
+   * @param favoriteFood The food constant, in any case.
+   * @param healthy "Yes" or "true" for a healthy monkey, "No" or "false" otherwise, in any case.
+   * @return The new monkey.
+   * @throws IllegalArgumentException if a field is missing or invalid.
+   */
+  public static Monkey newMonkey(String name, String species, String sex, String size, String weight,
+                                 String age, String favoriteFood, String healthy) {
+    return MonkeyCsvReader.parseFields(name.trim(), species.trim(), sex, size, weight.trim(), age.trim(),
+            favoriteFood.trim(), healthy.trim());
+  }
+
+  /**
+   * Register a monkey into isolation unless its name is taken.
+   * @param monkey The monkey to register.
+   * @return True if the monkey was registered, false if the name is already registered.
+   * @throws IllegalArgumentException if the isolation cannot admit the monkey.
+   */
+  public boolean register(Monkey monkey) {
+    return write(sanctuary -> {
+      if (sanctuary.containsName(monkey.getName())) {
+        return false;
+      }
+      sanctuary.addToIsolation(monkey);
+      return true;
+    });
+  }
+
+  /**
+   * Move a monkey from isolation to its enclosure.
+   * @param monkey The monkey to move.
+   * @throws IllegalArgumentException if the monkey cannot be moved.
+   */
+  public void moveToEnclosure(Monkey monkey) {
+    write(sanctuary -> {
+      sanctuary.moveToEnclosure(monkey);
+      return monkey;
+    });
+  }
+
+  /**
+   * Move the monkey with a name from isolation to its enclosure.
+   * @param name The name of the monkey.
+   * @return The moved monkey.
+   * @throws IllegalArgumentException if the monkey is not found or cannot be moved.
+   */
+  public Monkey moveToEnclosure(String name) {
+    return write(sanctuary -> {
+      Monkey monkey = sanctuary.findByName(name);
+      sanctuary.moveToEnclosure(monkey);
+      return monkey;
+    });
+  }
+
+  /**
+   * Mark the monkey with a name as healed.
+   * @param name The name of the monkey.
+   * @return The healed monkey.
+   * @throws IllegalArgumentException if the monkey is not found.
+   */
+  public Monkey heal(String name) {
+    return write(sanctuary -> {
+      Monkey monkey = sanctuary.findByName(name);
+      sanctuary.healMonkey(monkey);
+      return monkey;
+    });
+  }
+
+  /**
+   * Find the monkey registered under a name.
+   * @param name The name of the monkey.
+   * @return The monkey, or null if no monkey has this name.
+   */
+  public Monkey findByName(String name) {
+    return read(sanctuary -> sanctuary.findByName(name));
+  }
+
+  /**
+   * List the monkeys housed in an enclosure.
+   * @param species The species of the enclosure.
+   * @return The formatted list.
+   */
+  public String monkeysInOneEnclosure(Species species) {
+    return read(sanctuary -> sanctuary.monkeysInOneEnclosure(species));
+  }
+
+  /**
+   * List the monkeys housed in each enclosure.
+   * @return The formatted list.
+   */
+  public String monkeysInAllEnclosures() {
+    return read(Sanctuary::monkeysInAllEnclosures);
+  }
+
+  /**
+   * List every monkey housed in the sanctuary, sorted by name.
+   * @return The formatted list.
+   */
+  public String allMonkeysList() {
+    return read(Sanctuary::allMonkeysList);
+  }
+
+  /**
+   * Write the list of monkeys housed in an enclosure.
+   * @param species The species of the enclosure.
+   * @param out Receives the list.
+   * @throws IOException if the output cannot be written.
+   */
+  public void writeMonkeysInOneEnclosure(Species species, Appendable out) throws IOException {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      sanctuary.writeMonkeysInOneEnclosure(species, out);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * Write the list of monkeys housed in each enclosure.
+   * @param out Receives the list.
+   * @throws IOException if the output cannot be written.
+   */
+  public void writeMonkeysInAllEnclosures(Appendable out) throws IOException {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      sanctuary.writeMonkeysInAllEnclosures(out);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * Write the list of every monkey housed in the sanctuary, sorted by name.
+   * @param out Receives the list.
+   * @throws IOException if the output cannot be written.
+   */
+  public void writeAllMonkeysList(Appendable out) throws IOException {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      sanctuary.writeAllMonkeysList(out);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * Run a read-only operation on the sanctuary while holding the read lock.
+   * @param operation The operation.
+   * @param <T> The type of result.
+   * @return The result of the operation.
+   */
+  public <T> T read(Function<Sanctuary, T> operation) {
+    return guarded(lock.readLock(), operation);
+  }
+
+  /**
+   * Run a change to the sanctuary while holding the write lock.
+   * @param operation The operation.
+   * @param <T> The type of result.
+   * @return The result of the operation.
+   */
+  public <T> T write(Function<Sanctuary, T> operation) {
+    return guarded(lock.writeLock(), operation);
+  }
+
+  /**
+   * Get the sanctuary. Reads that bypass the service must hold the read lock.
+   * @return The sanctuary.
+   */
+  public Sanctuary getSanctuary() {
+    return this.sanctuary;
+  }
+
+  /**
+   * Get the lock guarding the sanctuary.
+   * @return The read/write lock.
+   */
+  public ReadWriteLock getLock() {
+    return this.lock;
+  }
+
+  private <T> T guarded(Lock held, Function<Sanctuary, T> operation) {
+    held.lock();
+    try {
+      return operation.apply(sanctuary);
+    } finally {
+      held.unlock();
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package sanctuary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary snapshot of every monkey housed in a sanctuary.
+ * Enum values, including sex and size, are stored as ordinals, and weight and age
+ * are stored as primitives.
+ * Snapshots are written through a FileChannel and read back from a MappedByteBuffer.
+ *
+ * <p>Layout: magic, format version, isolation cage capacity, waiting queue capacity,
+ * generation and offset of the journal position the snapshot covers, monkey count,
+ * then per monkey: name, species, food, status, healthy flag, sex, size, weight and age.
+ * Snapshots of format version 1, which kept sex and size as strings in a dictionary,
+ * and of version 2, which did not record the capacities and marked waiting monkeys
+ * with status -1, are still read; their isolation housing is grown to fit every monkey.
+ * Snapshots of version 3 did not record a journal position.
+ * Monkeys in isolation are written first, then waiting monkeys in queue order,
+ * so restoring them in file order rebuilds the same queue.
+ */
+public class SanctuarySnapshot {
+  private static final int MAGIC = 0x50534e50;
+  private static final int FORMAT_VERSION = 4;
+  private static final int CAPACITY_FORMAT_VERSION = 3;
+  private static final int ORDINAL_FORMAT_VERSION = 2;
+  private static final int DICTIONARY_FORMAT_VERSION = 1;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private SanctuarySnapshot() {
+  }
+
+  /**
+   * Write a snapshot of the sanctuary to a file, covering no journal.
+   * @param sanctuary The sanctuary to save.
+   * @param path The file to write.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(Sanctuary sanctuary, Path path) throws IOException {
+    write(sanctuary, path, SanctuaryJournal.Position.NONE);
+  }
+
+  /**
+   * Write a snapshot of the sanctuary to a file.
+   * The snapshot is written to a temporary file first and then moved into place,
+   * so an interrupted write never replaces a good snapshot.
+   * @param sanctuary The sanctuary to save.
+   * @param path The file to write.
+   * @param covered The journal position whose records the sanctuary already contains.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(Sanctuary sanctuary, Path path, SanctuaryJournal.Position covered) throws IOException {
+    Isolation isolation = sanctuary.getIsolation();
+    List<Monkey> monkeys = new ArrayList<>(isolation.getMonkeys());
+    monkeys.addAll(isolation.getWaitingMonkeys());
+    for (Enclosures enclosure : sanctuary.getEnclosures()) {
+      monkeys.addAll(enclosure.getMonkeys());
+    }
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      buffer.putInt(MAGIC).putInt(FORMAT_VERSION)
+              .putInt(isolation.getCageCapacity()).putInt(isolation.getWaitingCapacity())
+              .putLong(covered.getGeneration()).putLong(covered.getOffset())
+              .putInt(monkeys.size());
+      for (Monkey monkey : monkeys) {
+        putString(channel, buffer, monkey.getName());
+        ensureRemaining(channel, buffer, 18);
+        buffer.put((byte) monkey.getSpecies().ordinal())
+                .put((byte) monkey.getFavoriteFood().ordinal())
+                .put((byte) monkey.getStatus().ordinal())
+                .put((byte) (monkey.isHealthy() ? 1 : 0))
+                .put((byte) monkey.getSex().ordinal())
+                .put((byte) monkey.getSize().ordinal())
+                .putDouble(monkey.getWeight())
+                .putInt(monkey.getAge());
+      }
+      flush(channel, buffer);
+      channel.force(true);
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Read a snapshot into a new sanctuary.
+   * @param path The file to read.
+   * @return A sanctuary housing every monkey in the snapshot, with the saved capacities.
+   * @throws IOException if the file cannot be read or is not a valid snapshot.
+   */
+  public static Sanctuary read(Path path) throws IOException {
+    Sanctuary sanctuary = new Sanctuary();
+    read(path, sanctuary);
+    return sanctuary;
+  }
+
+  /**
+   * Read a snapshot into an empty sanctuary, restoring each monkey to its housing
+   * and the isolation housing to its saved capacities.
+   * @param path The file to read.
+   * @param sanctuary The sanctuary to restore into.
+   * @return The journal position the snapshot covers, or Position.NONE if it recorded none.
+   * @throws IOException if the file cannot be read or is not a valid snapshot.
+   */
+  public static SanctuaryJournal.Position read(Path path, Sanctuary sanctuary) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+        throw new IOException("Not a sanctuary snapshot: " + path);
+      }
+      int version = buffer.getInt();
+      if (version != FORMAT_VERSION && version != CAPACITY_FORMAT_VERSION
+              && version != ORDINAL_FORMAT_VERSION && version != DICTIONARY_FORMAT_VERSION) {
+        throw new IOException("Unsupported sanctuary snapshot version " + version + ": " + path);
+      }
+      if (version >= CAPACITY_FORMAT_VERSION) {
+        sanctuary.setIsolationCapacity(buffer.getInt());
+        sanctuary.setWaitingCapacity(buffer.getInt());
+      }
+      SanctuaryJournal.Position covered = SanctuaryJournal.Position.NONE;
+      if (version == FORMAT_VERSION) {
+        covered = new SanctuaryJournal.Position(buffer.getLong(), buffer.getLong());
+      }
+      byte[] scratch = new byte[256];
+      String[] words = new String[version == DICTIONARY_FORMAT_VERSION ? buffer.getInt() : 0];
+      for (int i = 0; i < words.length; i++) {
+        words[i] = getString(buffer, scratch);
+      }
+      Species[] species = Species.values();
+      Food[] foods = Food.values();
+      Sex[] sexes = Sex.values();
+      Size[] sizes = Size.values();
+      int count = buffer.getInt();
+      for (int i = 0; i < count; i++) {
+        String name = getString(buffer, scratch);
+        Species monkeySpecies = species[buffer.get()];
+        Food food = foods[buffer.get()];
+        byte status = buffer.get();
+        boolean healthy = buffer.get() != 0;
+        Sex sex;
+        Size size;
+        if (version == DICTIONARY_FORMAT_VERSION) {
+          sex = Sex.parse(words[buffer.getShort() & 0xffff]);
+          size = Size.parse(words[buffer.getShort() & 0xffff]);
+        } else {
+          sex = sexes[buffer.get()];
+          size = sizes[buffer.get()];
+        }
+        double weight = buffer.getDouble();
+        int age = buffer.getInt();
+        Monkey monkey = new Monkey(name, monkeySpecies, sex, size, weight, age, food, healthy);
+        if (status == Status.ENCLOSURE.ordinal()) {
+          sanctuary.restoreToEnclosure(monkey);
+        } else {
+          makeRoom(sanctuary, status == Status.ISOLATION.ordinal());
+          sanctuary.addToIsolation(monkey);
+        }
+      }
+      return covered;
+    } catch (RuntimeException ex) {
+      throw new IOException("Corrupt sanctuary snapshot: " + path, ex);
+    }
+  }
+
+  /**
+   * Grow the isolation housing when a saved monkey would not fit, which only happens
+   * with snapshots that did not record the capacities.
+   * @param sanctuary The sanctuary being restored.
+   * @param caged True if the monkey was saved in a cage, false if it was waiting.
+   */
+  private static void makeRoom(Sanctuary sanctuary, boolean caged) {
+    Isolation isolation = sanctuary.getIsolation();
+    if (isolation.getMonkeys().size() < isolation.getCageCapacity()) {
+      return;
+    }
+    if (caged) {
+      sanctuary.setIsolationCapacity(isolation.getCageCapacity() + 1);
+    } else if (isolation.getWaitingMonkeys().size() >= isolation.getWaitingCapacity()) {
+      sanctuary.setWaitingCapacity(isolation.getWaitingCapacity() + 1);
+    }
+  }
+
+  /**
+   * Append a length-prefixed UTF-8 string to the buffer.
+   */
+  private static void putString(FileChannel channel, ByteBuffer buffer, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > 0xffff) {
+      throw new IOException("String too long for snapshot");
+    }
+    ensureRemaining(channel, buffer, 2 + bytes.length);
+    buffer.putShort((short) bytes.length).put(bytes);
+  }
+
+  /**
+   * Read a length-prefixed UTF-8 string from the buffer.
+   */
+  private static String getString(ByteBuffer buffer, byte[] scratch) {
+    int length = buffer.getShort() & 0xffff;
+    byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+    buffer.get(bytes, 0, length);
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Flush the buffer to the channel if it cannot hold the given number of bytes.
+   */
+  private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush(channel, buffer);
+      if (buffer.remaining() < bytes) {
+        throw new IOException("Record too large for snapshot");
+      }
+    }
+  }
+
+  /**
+   * Write the buffered bytes to the channel and clear the buffer.
+   */
+  private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
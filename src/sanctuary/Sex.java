@@ -0,0 +1,41 @@
+package sanctuary;
+
+/**
+ * Enumeration representing the sex of a monkey.
+ * Each constant carries the label shown in the View and in listings.
+ */
+public enum Sex {
+  MALE("Male"), FEMALE("Female");
+
+  private final String label;
+
+  Sex(String label) {
+    this.label = label;
+  }
+
+  /**
+   * Parse a sex from user or file input, accepting the constant name, the label
+   * or its first letter in any case, such as "MALE", "Male" or "m".
+   * @param text The text to parse.
+   * @return The matching sex.
+   * @throws IllegalArgumentException if the text does not name a sex.
+   */
+  public static Sex parse(String text) {
+    String value = text == null ? "" : text.trim();
+    for (Sex sex : values()) {
+      if (sex.label.equalsIgnoreCase(value) || sex.label.substring(0, 1).equalsIgnoreCase(value)) {
+        return sex;
+      }
+    }
+    throw new IllegalArgumentException("Unknown sex: " + text);
+  }
+
+  /**
+   * Get the label of the sex.
+   * @return The label, such as "Male".
+   */
+  @Override
+  public String toString() {
+    return label;
+  }
+}
@@ -0,0 +1,41 @@
+package sanctuary;
+
+/**
+ * Enumeration representing the size of a monkey, from smallest to largest.
+ * Each constant carries the label shown in the View and in listings.
+ */
+public enum Size {
+  SMALL("Small"), MEDIUM("Medium"), LARGE("Large");
+
+  private final String label;
+
+  Size(String label) {
+    this.label = label;
+  }
+
+  /**
+   * Parse a size from user or file input, accepting the constant name or the label
+   * in any case, such as "SMALL" or "Small".
+   * @param text The text to parse.
+   * @return The matching size.
+   * @throws IllegalArgumentException if the text does not name a size.
+   */
+  public static Size parse(String text) {
+    String value = text == null ? "" : text.trim();
+    for (Size size : values()) {
+      if (size.label.equalsIgnoreCase(value)) {
+        return size;
+      }
+    }
+    throw new IllegalArgumentException("Unknown size: " + text);
+  }
+
+  /**
+   * Get the label of the size.
+   * @return The label, such as "Small".
+   */
+  @Override
+  public String toString() {
+    return label;
+  }
+}
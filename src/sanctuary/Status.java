@@ -2,8 +2,9 @@ package sanctuary;
 
 /**
  * Enumeration representing the housing status of a monkey in the sanctuary.
- * The housing status can be either ISOLATION or ENCLOSURE.
+ * The housing status can be ISOLATION, ENCLOSURE, or WAITING for a monkey that is
+ * registered but still queued for a free isolation cage.
  */
 public enum Status {
-  ISOLATION, ENCLOSURE;
+  ISOLATION, ENCLOSURE, WAITING;
 }
@@ -1,6 +1,8 @@
 package sanctuary;
 
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import javax.swing.*;
 import java.util.Arrays;
 
@@ -16,6 +18,9 @@ public class View extends JFrame {
   private JComboBox<String> speciesField, sizeField, sexField, favoriteFoodField, isHealthyField, speciesForEnclosure;
   private JButton registerButton, moveButton, listEnclosureMonkeys, listEachEnclosureMonkeys,listAllMonkeys;
   private JTextArea displayArea;
+  private JTable monkeyTable;
+  private JTabbedPane displayTabs;
+  private JProgressBar progressBar;
   private JComboBox<Monkey> monkeysInIsolation;
 
 
@@ -46,7 +51,13 @@ public class View extends JFrame {
 
     displayArea = new JTextArea(10, 30);
     displayArea.setEditable(false);
-    frame.add(new JScrollPane(displayArea), BorderLayout.CENTER);
+    monkeyTable = new JTable();
+    monkeyTable.setAutoCreateRowSorter(true);
+    monkeyTable.setFillsViewportHeight(true);
+    displayTabs = new JTabbedPane();
+    displayTabs.addTab("Messages", new JScrollPane(displayArea));
+    displayTabs.addTab("All Monkeys", new JScrollPane(monkeyTable));
+    frame.add(displayTabs, BorderLayout.CENTER);
 
     JPanel buttonPanel = new JPanel(new FlowLayout());
     registerButton = new JButton("Register Monkey");
@@ -59,6 +70,10 @@ public class View extends JFrame {
     buttonPanel.add(listEachEnclosureMonkeys);
     buttonPanel.add(listEnclosureMonkeys);
     buttonPanel.add(listAllMonkeys);
+    progressBar = new JProgressBar();
+    progressBar.setIndeterminate(true);
+    progressBar.setVisible(false);
+    buttonPanel.add(progressBar);
     frame.add(buttonPanel, BorderLayout.SOUTH);
 
     frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -195,6 +210,53 @@ public class View extends JFrame {
    */
   public JTextArea getDisplayArea() { return displayArea; }
 
+  /**
+   * Shows a message in the text area and brings it to the front.
+   * @param message The message to display.
+   */
+  public void showMessage(String message) {
+    displayArea.setText(message);
+    displayTabs.setSelectedIndex(0);
+  }
+
+  /**
+   * Brings the table of all monkeys to the front.
+   */
+  public void showMonkeyTable() { displayTabs.setSelectedIndex(1); }
+
+  /**
+   * Retrieves the table that lists every monkey in the sanctuary.
+   * @return The table of monkeys.
+   */
+  public JTable getMonkeyTable() { return monkeyTable; }
+
+  /**
+   * Shows or hides the progress indicator for work running in the background.
+   * @param busy True while a result is being prepared.
+   */
+  public void setBusy(boolean busy) { progressBar.setVisible(busy); }
+
+  /**
+   * Sets the action run when the window is closed, before the application exits.
+   * @param action The action to run.
+   */
+  public void setCloseAction(Runnable action) {
+    frame.addWindowListener(new WindowAdapter() {
+      @Override
+      public void windowClosing(WindowEvent e) {
+        action.run();
+      }
+    });
+  }
+
+  /**
+   * Shows an error in a dialog that the user must dismiss.
+   * @param message The error to display.
+   */
+  public void showError(String message) {
+    JOptionPane.showMessageDialog(frame, message, "Primates Sanctuary", JOptionPane.ERROR_MESSAGE);
+  }
+
   /**
    * Retrieves the combo box used to select monkeys in isolation.
    * @return The combo box for selecting monkeys in isolation.
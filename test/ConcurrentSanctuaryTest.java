@@ -0,0 +1,181 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import sanctuary.ConcurrentSanctuary;
+import sanctuary.Enclosures;
+import sanctuary.Food;
+import sanctuary.FoodSummary;
+import sanctuary.Monkey;
+import sanctuary.Species;
+import sanctuary.Status;
+
+class ConcurrentSanctuaryTest {
+
+  /**
+   * Run the task on the given number of threads, all started at the same moment.
+   */
+  private void runConcurrently(int threads, IntTask task) throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      int id = t;
+      executor.execute(() -> {
+        try {
+          start.await();
+          task.run(id);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    start.countDown();
+    assertTrue(done.await(60, TimeUnit.SECONDS));
+    executor.shutdown();
+  }
+
+  private interface IntTask {
+    void run(int thread) throws InterruptedException;
+  }
+
+  /**
+   * Test that verifies concurrent registrations never overfill the isolation cages
+   */
+  @Test
+  public void testConcurrentRegistrationRespectsCapacity() throws InterruptedException {
+    ConcurrentSanctuary sanctuary = new ConcurrentSanctuary();
+    AtomicInteger admitted = new AtomicInteger();
+    runConcurrently(8, thread -> {
+      for (int i = 0; i < 50; i++) {
+        try {
+          sanctuary.addToIsolation(new Monkey("Monkey" + thread + "-" + i, Species.DRILL,
+                  "M", "Small", 10.0, 1, Food.FRUITS, false));
+          admitted.incrementAndGet();
+        } catch (IllegalArgumentException e) {
+          // isolation is full
+        }
+      }
+    });
+    assertEquals(20, admitted.get());
+    assertEquals(20, sanctuary.getIsolation().getMonkeys().size());
+  }
+
+  /**
+   * Test that verifies a name raced by many threads is registered exactly once
+   */
+  @Test
+  public void testConcurrentDuplicateNames() throws InterruptedException {
+    ConcurrentSanctuary sanctuary = new ConcurrentSanctuary();
+    AtomicInteger admitted = new AtomicInteger();
+    runConcurrently(8, thread -> {
+      try {
+        sanctuary.addToIsolation(new Monkey("Shared", Species.SAKI, "F", "Small", 10.0, 1, Food.NUTS, true));
+        admitted.incrementAndGet();
+      } catch (IllegalArgumentException e) {
+        // name already taken
+      }
+    });
+    assertEquals(1, admitted.get());
+    assertEquals(1, sanctuary.getIsolation().getMonkeys().size());
+  }
+
+  /**
+   * Test that verifies concurrent registrations, moves and listings lose no monkeys
+   * for increasing thread counts. Throughput is measured by ConcurrentSanctuaryBenchmark.
+   */
+  @Test
+  public void testConcurrentIntakeAndTransfer() throws InterruptedException {
+    int perThread = 2000;
+    for (int threads = 1; threads <= 8; threads *= 2) {
+      ConcurrentSanctuary sanctuary = new ConcurrentSanctuary();
+      AtomicInteger moved = new AtomicInteger();
+      runConcurrently(threads, thread -> {
+        Species species = Species.values()[thread % Species.values().length];
+        for (int i = 0; i < perThread; i++) {
+          Monkey monkey = new Monkey("Monkey" + thread + "-" + i, species, "M", "Small", 10.0, 1, Food.SEEDS, true);
+          while (true) {
+            try {
+              sanctuary.addToIsolation(monkey);
+              break;
+            } catch (IllegalArgumentException e) {
+              Thread.yield();
+            }
+          }
+          sanctuary.moveToEnclosure(monkey);
+          moved.incrementAndGet();
+          if (i % 500 == 0) {
+            sanctuary.monkeysInAllEnclosures();
+          }
+        }
+      });
+
+      int housed = 0;
+      for (Enclosures enclosure : sanctuary.getEnclosures()) {
+        housed += enclosure.getMonkeys().size();
+      }
+      assertEquals(threads * perThread, moved.get());
+      assertEquals(threads * perThread, housed);
+      assertTrue(sanctuary.getIsolation().getMonkeys().isEmpty());
+    }
+  }
+
+  /**
+   * Test that verifies heals and moves on some threads are never half seen by counts,
+   * queries and food summaries on the others
+   */
+  @Test
+  public void testConsistentReadsDuringHealsAndMoves() throws InterruptedException {
+    int population = 2000;
+    ConcurrentSanctuary sanctuary = new ConcurrentSanctuary(population, 0);
+    List<Monkey> monkeys = new ArrayList<>();
+    for (int i = 0; i < population; i++) {
+      Monkey monkey = new Monkey("Monkey" + i, Species.values()[i % Species.values().length], "F", "Small",
+              5.0, 2, Food.values()[i % Food.values().length], false);
+      sanctuary.addToIsolation(monkey);
+      monkeys.add(monkey);
+    }
+    AtomicInteger inconsistent = new AtomicInteger();
+    AtomicInteger moved = new AtomicInteger();
+    runConcurrently(4, thread -> {
+      if (thread < 2) {
+        for (int i = thread; i < population; i += 2) {
+          sanctuary.healMonkey(monkeys.get(i));
+          sanctuary.moveToEnclosure(monkeys.get(i));
+          moved.incrementAndGet();
+        }
+        return;
+      }
+      int lastHoused = 0;
+      while (moved.get() < population) {
+        int housed = sanctuary.query().status(Status.ENCLOSURE).count();
+        int isolated = sanctuary.query().status(Status.ISOLATION).count();
+        int healthyInIsolation = sanctuary.query().status(Status.ISOLATION).healthy(true).count();
+        FoodSummary summary = sanctuary.foodSummary();
+        long summarized = 0;
+        for (Food food : Food.values()) {
+          summarized += summary.getCount(food);
+        }
+        // moves between the two counts can only lower the later isolation count
+        if (sanctuary.size() != population || housed < lastHoused || housed + isolated > population
+                || summarized != population || healthyInIsolation > 2
+                || sanctuary.monkeyAt(population - 1) == null) {
+          inconsistent.incrementAndGet();
+        }
+        lastHoused = housed;
+      }
+    });
+    assertEquals(0, inconsistent.get());
+    assertEquals(population, sanctuary.query().status(Status.ENCLOSURE).healthy(true).count());
+  }
+}
@@ -0,0 +1,209 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import sanctuary.Food;
+import sanctuary.JournaledSanctuary;
+import sanctuary.Monkey;
+import sanctuary.Sanctuary;
+import sanctuary.SanctuaryCluster;
+import sanctuary.SanctuaryJournal;
+import sanctuary.Sex;
+import sanctuary.Size;
+import sanctuary.Species;
+import sanctuary.Status;
+
+class SanctuaryClusterTest {
+
+  private static Monkey monkey(String name, Species species) {
+    return new Monkey(name, species, Sex.FEMALE, Size.SMALL, 10.0, 4, Food.FRUITS, true);
+  }
+
+  /**
+   * Test that verifies a name can only be registered at one site of the network
+   */
+  @Test
+  public void testUniqueNamesAcrossSites() {
+    SanctuaryCluster cluster = new SanctuaryCluster(Arrays.asList("North", "South"), 20, 0);
+    cluster.addToIsolation("North", monkey("Coco", Species.DRILL));
+    assertThrows(IllegalArgumentException.class,
+            () -> cluster.addToIsolation("South", monkey("Coco", Species.SAKI)));
+    assertThrows(IllegalArgumentException.class, () -> cluster.addToIsolation("East", monkey("Kiki", Species.SAKI)));
+    assertEquals("North", cluster.siteOf("Coco"));
+    assertFalse(cluster.getSanctuary("South").containsName("Coco"));
+
+    Monkey hashed = monkey("Momo", Species.SAKI);
+    cluster.addToIsolation(hashed);
+    assertEquals(cluster.siteFor("Momo"), cluster.siteOf("Momo"));
+    assertSame(hashed, cluster.findByName("Momo"));
+    assertNull(cluster.findByName("Nobody"));
+
+    Map<String, Sanctuary> sites = new LinkedHashMap<>();
+    sites.put("A", new Sanctuary());
+    sites.put("B", new Sanctuary());
+    sites.get("A").addToIsolation(monkey("Twin", Species.DRILL));
+    sites.get("B").addToIsolation(monkey("Twin", Species.DRILL));
+    assertThrows(IllegalArgumentException.class, () -> new SanctuaryCluster(sites));
+  }
+
+  /**
+   * Test that verifies concurrent registrations of the same names admit each name once
+   */
+  @Test
+  public void testConcurrentRegistrationsAreUnique() throws Exception {
+    List<String> sites = Arrays.asList("A", "B", "C", "D");
+    SanctuaryCluster cluster = new SanctuaryCluster(sites, 1000, 0);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<Integer>> results = new ArrayList<>();
+    for (String site : sites) {
+      results.add(executor.submit(() -> {
+        int admitted = 0;
+        for (int i = 0; i < 500; i++) {
+          try {
+            cluster.addToIsolation(site, monkey("Monkey" + i, Species.HOWLER));
+            admitted++;
+          } catch (IllegalArgumentException ex) {
+            assertEquals("Monkey is already added!", ex.getMessage());
+          }
+        }
+        return admitted;
+      }));
+    }
+    int admitted = 0;
+    for (Future<Integer> result : results) {
+      admitted += result.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    assertEquals(500, admitted);
+    assertEquals(500, cluster.size());
+    for (int i = 0; i < 500; i++) {
+      String site = cluster.siteOf("Monkey" + i);
+      assertTrue(cluster.getSanctuary(site).containsName("Monkey" + i));
+    }
+  }
+
+  /**
+   * Test that verifies network-wide listings merge every site in name order
+   */
+  @Test
+  public void testFanOutListing() {
+    SanctuaryCluster cluster = new SanctuaryCluster(Arrays.asList("A", "B", "C"), 20, 0);
+    ForkJoinPool pool = new ForkJoinPool(3);
+    cluster.setPool(pool);
+    Sanctuary combined = new Sanctuary(60, 0);
+    String[] names = {"Zed", "Abe", "Mia", "Kai", "Bo", "Lu", "Ned", "Ola", "Cy"};
+    for (int i = 0; i < names.length; i++) {
+      Species species = Species.values()[i % Species.values().length];
+      Monkey monkey = monkey(names[i], species);
+      cluster.addToIsolation(cluster.getSites().get(i % 3), monkey);
+      combined.addToIsolation(monkey(names[i], species));
+      if (i % 2 == 0) {
+        cluster.moveToEnclosure(monkey);
+        combined.moveToEnclosure(combined.findByName(names[i]));
+      }
+    }
+    String expected = combined.allMonkeysList()
+            .replace("housed in the Sanctuary:", "housed in the Sanctuary network:");
+    assertEquals(expected, cluster.allMonkeysList());
+
+    Iterator<Monkey> ordered = cluster.monkeysByName();
+    assertEquals("Abe", ordered.next().getName());
+    assertEquals("Bo", ordered.next().getName());
+    List<Monkey> enclosed = cluster.scan(m -> m.getStatus() == Status.ENCLOSURE);
+    assertEquals(5, enclosed.size());
+    assertEquals(9, cluster.size());
+    pool.shutdown();
+  }
+
+  /**
+   * Test that verifies a transfer moves a monkey between sites and keeps every view consistent
+   */
+  @Test
+  public void testTransfer() {
+    SanctuaryCluster cluster = new SanctuaryCluster(Arrays.asList("North", "South"), 1, 2);
+    Monkey coco = monkey("Coco", Species.DRILL);
+    cluster.addToIsolation("North", coco);
+    cluster.moveToEnclosure(coco);
+
+    Monkey arrived = cluster.transfer("Coco", "South");
+    Sanctuary north = cluster.getSanctuary("North");
+    Sanctuary south = cluster.getSanctuary("South");
+    assertEquals("South", cluster.siteOf("Coco"));
+    assertSame(arrived, cluster.findByName("Coco"));
+    assertEquals(Status.ISOLATION, arrived.getStatus());
+    assertFalse(north.containsName("Coco"));
+    assertTrue(north.getEnclosure(Species.DRILL).getMonkeys().isEmpty());
+    assertEquals(0, north.query().count());
+    assertEquals(0, north.foodSummary().getCount(Food.FRUITS));
+    assertEquals(1, south.foodSummary().getCount(Food.FRUITS, Status.ISOLATION));
+    assertEquals(1, south.query().species(Species.DRILL).count());
+    assertThrows(IllegalArgumentException.class, () -> cluster.transfer("Coco", "South"));
+    assertThrows(IllegalArgumentException.class, () -> cluster.transfer("Nobody", "North"));
+
+    cluster.addToIsolation("North", monkey("Kiki", Species.SAKI));
+    cluster.addToIsolation("North", monkey("Lulu", Species.SAKI));
+    cluster.addToIsolation("South", monkey("Momo", Species.SAKI));
+    Monkey kiki = cluster.transfer("Kiki", "South");
+    assertEquals(Status.WAITING, kiki.getStatus());
+    assertEquals(Status.ISOLATION, north.findByName("Lulu").getStatus());
+    assertEquals(2, south.query().status(Status.WAITING).count());
+
+    assertThrows(IllegalArgumentException.class, () -> cluster.transfer("Lulu", "South"));
+    assertEquals("North", cluster.siteOf("Lulu"));
+    assertTrue(north.containsName("Lulu"));
+    assertFalse(south.containsName("Lulu"));
+
+    cluster.transfer("Momo", "North");
+    assertEquals(1, south.query().status(Status.WAITING).count());
+    assertEquals(1, south.foodSummary().getCount(Food.FRUITS, Status.WAITING));
+    assertEquals(1, north.foodSummary().getCount(Food.FRUITS, Status.WAITING));
+    assertEquals(2, north.query().count());
+    assertEquals(2, cluster.size());
+  }
+
+  /**
+   * Test that verifies a transfer out of a journaled site is replayed after a restart
+   */
+  @Test
+  public void testTransferIsJournaled() throws IOException {
+    Path directory = Files.createTempDirectory("cluster");
+    Path snapshot = directory.resolve("north.snapshot");
+    Path journal = directory.resolve("north.journal");
+    try {
+      JournaledSanctuary north = new JournaledSanctuary(snapshot, journal);
+      Map<String, Sanctuary> sites = new LinkedHashMap<>();
+      sites.put("North", north);
+      sites.put("South", new Sanctuary());
+      SanctuaryCluster cluster = new SanctuaryCluster(sites);
+      cluster.addToIsolation("North", monkey("Coco", Species.DRILL));
+      cluster.addToIsolation("North", monkey("Kiki", Species.SAKI));
+      cluster.transfer("Coco", "South");
+      north.flush();
+
+      Sanctuary replayed = new Sanctuary();
+      assertEquals(3, SanctuaryJournal.replay(journal, replayed));
+      assertFalse(replayed.containsName("Coco"));
+      assertTrue(replayed.containsName("Kiki"));
+      north.close();
+    } finally {
+      Files.deleteIfExists(snapshot);
+      Files.deleteIfExists(journal);
+      Files.deleteIfExists(directory);
+    }
+  }
+}
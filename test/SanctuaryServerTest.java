@@ -0,0 +1,152 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sanctuary.Food;
+import sanctuary.Monkey;
+import sanctuary.Sanctuary;
+import sanctuary.SanctuaryServer;
+import sanctuary.Sex;
+import sanctuary.Size;
+import sanctuary.Species;
+import sanctuary.Status;
+
+class SanctuaryServerTest {
+  private Sanctuary sanctuary;
+  private SanctuaryServer server;
+  private HttpClient client;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    sanctuary = new Sanctuary();
+    server = new SanctuaryServer(sanctuary, 0);
+    server.start();
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    server.close();
+  }
+
+  private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+    return send(HttpRequest.newBuilder(uri(path)).GET().build());
+  }
+
+  private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+    return send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build());
+  }
+
+  private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://127.0.0.1:" + server.getPort() + path);
+  }
+
+  /**
+   * Test that verifies monkeys are registered, healed and moved through the API
+   */
+  @Test
+  public void testRegisterHealAndMove() throws Exception {
+    HttpResponse<String> registered = post("/monkeys", "{\"name\": \"Coco \\\"Jr\\\"\", \"species\": \"DRILL\","
+            + " \"sex\": \"Female\", \"size\": \"SMALL\", \"weight\": 12.5, \"age\": 3,"
+            + " \"favoriteFood\": \"NUTS\", \"healthy\": false}");
+    assertEquals(201, registered.statusCode());
+    assertEquals("{\"name\":\"Coco \\\"Jr\\\"\",\"species\":\"DRILL\",\"sex\":\"FEMALE\",\"size\":\"SMALL\","
+            + "\"weight\":12.5,\"age\":3,\"favoriteFood\":\"NUTS\",\"healthy\":false,\"status\":\"ISOLATION\"}",
+            registered.body());
+    assertEquals(Status.ISOLATION, sanctuary.findByName("Coco \"Jr\"").getStatus());
+
+    assertEquals(400, post("/monkeys/Coco%20%22Jr%22/move", "").statusCode());
+    assertEquals(200, post("/monkeys/Coco%20%22Jr%22/heal", "").statusCode());
+    HttpResponse<String> moved = post("/monkeys/Coco%20%22Jr%22/move", "");
+    assertEquals(200, moved.statusCode());
+    assertTrue(moved.body().endsWith("\"healthy\":true,\"status\":\"ENCLOSURE\"}"));
+    assertEquals(Status.ENCLOSURE, sanctuary.findByName("Coco \"Jr\"").getStatus());
+
+    assertEquals(400, post("/monkeys", "{\"name\": \"Coco \\\"Jr\\\"\", \"species\": \"DRILL\", \"sex\": \"F\","
+            + " \"size\": \"Small\", \"weight\": 1, \"age\": 1, \"favoriteFood\": \"NUTS\", \"healthy\": true}")
+            .statusCode());
+    assertEquals(400, post("/monkeys", "{\"name\": \"Kiki\"}").statusCode());
+    assertEquals(400, post("/monkeys", "{\"name\": ").statusCode());
+    assertEquals(404, post("/monkeys/Nobody/heal", "").statusCode());
+    assertEquals(405, get("/monkeys/Coco/move").statusCode());
+    assertEquals(404, get("/nothing").statusCode());
+  }
+
+  /**
+   * Test that verifies listings and queries are streamed as JSON arrays
+   */
+  @Test
+  public void testListingsAndQueries() throws Exception {
+    Monkey kiki = new Monkey("Kiki", Species.SAKI, Sex.FEMALE, Size.SMALL, 3.0, 2, Food.FRUITS, true);
+    Monkey bobo = new Monkey("Bobo", Species.SAKI, Sex.MALE, Size.MEDIUM, 5.0, 12, Food.SEEDS, true);
+    Monkey zaza = new Monkey("Zaza", Species.HOWLER, Sex.MALE, Size.LARGE, 9.0, 7, Food.LEAVES, false);
+    sanctuary.addToIsolation(kiki);
+    sanctuary.addToIsolation(bobo);
+    sanctuary.addToIsolation(zaza);
+    sanctuary.moveToEnclosure(kiki);
+    sanctuary.moveToEnclosure(bobo);
+
+    HttpResponse<String> all = get("/monkeys");
+    assertEquals(200, all.statusCode());
+    assertEquals("application/json; charset=utf-8", all.headers().firstValue("Content-Type").orElse(""));
+    assertTrue(all.body().startsWith("[{\"name\":\"Bobo\""));
+    assertTrue(all.body().indexOf("\"Kiki\"") < all.body().indexOf("\"Zaza\""));
+    assertEquals(3, all.body().split("\\{").length - 1);
+
+    assertEquals("[]", get("/enclosures/HOWLER").body());
+    assertEquals(2, get("/enclosures/SAKI").body().split("\\{").length - 1);
+    assertEquals(400, get("/enclosures/GORILLA").statusCode());
+    assertEquals(get("/enclosures/SAKI").body(), get("/enclosures/saki").body());
+    HttpResponse<String> notAllowed = post("/enclosures/SAKI", "");
+    assertEquals(405, notAllowed.statusCode());
+    assertEquals("GET", notAllowed.headers().firstValue("Allow").orElse(""));
+
+    assertEquals("{\"count\":1}", get("/query/count?species=SAKI&minAge=10").body());
+    assertEquals("{\"count\":2}", get("/query/count?species=SAKI,HOWLER&sex=Male").body());
+    assertEquals("{\"count\":1}", get("/query/count?healthy=false&status=ISOLATION").body());
+    assertEquals("{\"count\":2}", get("/query/count?species=saki&favoriteFood=fruits,Seeds&status=enclosure").body());
+    assertEquals("{\"count\":2}", get("/query/count?maxWeight=5").body());
+    assertTrue(get("/query?favoriteFood=LEAVES").body().startsWith("[{\"name\":\"Zaza\""));
+    assertEquals(400, get("/query?colour=red").statusCode());
+    assertEquals(200, get("/monkeys/Kiki").statusCode());
+    assertEquals(404, get("/monkeys/Nobody").statusCode());
+  }
+
+  /**
+   * Test that verifies failures other than bad requests are answered with a JSON 500 error
+   */
+  @Test
+  public void testInternalErrorsAnswer500() throws Exception {
+    Sanctuary failing = new Sanctuary() {
+      @Override
+      public void healMonkey(Monkey monkey) {
+        throw new UncheckedIOException(new IOException("disk full"));
+      }
+    };
+    failing.addToIsolation(new Monkey("Kiki", Species.SAKI, Sex.FEMALE, Size.SMALL, 5.0, 2, Food.NUTS, false));
+    SanctuaryServer failingServer = new SanctuaryServer(failing, 0);
+    failingServer.start();
+    try {
+      HttpResponse<String> response = send(HttpRequest.newBuilder(
+              URI.create("http://127.0.0.1:" + failingServer.getPort() + "/monkeys/Kiki/heal"))
+              .POST(HttpRequest.BodyPublishers.noBody()).build());
+      assertEquals(500, response.statusCode());
+      assertEquals("{\"error\":\"Internal error: java.io.IOException: disk full\"}", response.body());
+    } finally {
+      failingServer.close();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sanctuary.Food;
+import sanctuary.Monkey;
+import sanctuary.Sanctuary;
+import sanctuary.SanctuaryBatch;
+import sanctuary.SanctuaryService;
+import sanctuary.Sex;
+import sanctuary.Size;
+import sanctuary.Species;
+import sanctuary.Status;
+
+class SanctuaryServiceTest {
+  private Sanctuary sanctuary;
+  private SanctuaryService service;
+
+  @BeforeEach
+  public void setUp() {
+    sanctuary = new Sanctuary();
+    service = new SanctuaryService(sanctuary);
+  }
+
+  /**
+   * Test that verifies monkeys are created, registered, healed and moved through the service
+   */
+  @Test
+  public void testServiceOperations() {
+    Monkey coco = SanctuaryService.newMonkey(" Coco ", "drill", "Female", "Small", " 12.5", "3 ", "nuts", "No");
+    assertEquals("Coco", coco.getName());
+    assertEquals(Species.DRILL, coco.getSpecies());
+    assertEquals(Sex.FEMALE, coco.getSex());
+    assertEquals(Size.SMALL, coco.getSize());
+    assertEquals(Food.NUTS, coco.getFavoriteFood());
+    assertFalse(coco.isHealthy());
+    assertThrows(IllegalArgumentException.class,
+        () -> SanctuaryService.newMonkey("Kiki", "DRILL", "Female", "Small", "heavy", "3", "NUTS", "Yes"));
+
+    assertTrue(service.register(coco));
+    assertFalse(service.register(new Monkey("Coco", Species.SAKI, Sex.MALE, Size.LARGE, 9.0, 5, Food.SEEDS, true)));
+    assertSame(coco, service.findByName("Coco"));
+    assertThrows(IllegalArgumentException.class, () -> service.moveToEnclosure("Coco"));
+    assertSame(coco, service.heal("Coco"));
+    assertSame(coco, service.moveToEnclosure("Coco"));
+    assertEquals(Status.ENCLOSURE, coco.getStatus());
+    assertThrows(IllegalArgumentException.class, () -> service.heal("Nobody"));
+
+    assertEquals(sanctuary.allMonkeysList(), service.allMonkeysList());
+    assertEquals(sanctuary.monkeysInAllEnclosures(), service.monkeysInAllEnclosures());
+    assertEquals(sanctuary.monkeysInOneEnclosure(Species.DRILL), service.monkeysInOneEnclosure(Species.DRILL));
+    assertEquals(1, (int) service.read(Sanctuary::size));
+  }
+
+  /**
+   * Test that verifies listings running together under the read lock share the report cache without losing counts
+   */
+  @Test
+  public void testConcurrentListings() throws InterruptedException {
+    for (int i = 0; i < 40; i++) {
+      Monkey monkey = new Monkey("Monkey" + i, Species.values()[i % Species.values().length], Sex.FEMALE,
+              Size.SMALL, 5.0, 2, Food.NUTS, true);
+      service.register(monkey);
+      if (i % 2 == 0) {
+        service.moveToEnclosure(monkey);
+      }
+    }
+    String all = service.allMonkeysList();
+    String enclosures = service.monkeysInAllEnclosures();
+    long hits = sanctuary.getReportCacheHits();
+    int threads = 4;
+    int listings = 500;
+    AtomicInteger wrong = new AtomicInteger();
+    List<Thread> readers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      Thread reader = new Thread(() -> {
+        for (int i = 0; i < listings; i++) {
+          if (!service.allMonkeysList().equals(all) || !service.monkeysInAllEnclosures().equals(enclosures)) {
+            wrong.incrementAndGet();
+          }
+        }
+      });
+      readers.add(reader);
+      reader.start();
+    }
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    assertEquals(0, wrong.get());
+    assertEquals(hits + 2L * threads * listings, sanctuary.getReportCacheHits());
+  }
+
+  /**
+   * Test that verifies a batch script runs every command and reports failures by line
+   */
+  @Test
+  public void testBatchScript() throws Exception {
+    String script = "# intake\n"
+        + "register,Coco,DRILL,Female,Small,12.5,3,NUTS,no\n"
+        + "register, Kiki, saki, Male, Medium, 5.0, 2, fruits, yes\n"
+        + "\n"
+        + "register,Coco,SAKI,Male,Large,9,5,SEEDS,yes\n"
+        + "register,Bobo,SAKI,Male,Large,lots,5,SEEDS,yes\n"
+        + "move,Coco\n"
+        + "heal,Coco\n"
+        + "move,Coco\n"
+        + "move,Kiki\n"
+        + "list,enclosure,DRILL\n"
+        + "list,all\n"
+        + "fly,Coco\n"
+        + "list,everything\n";
+    StringBuilder out = new StringBuilder();
+    StringBuilder errors = new StringBuilder();
+    SanctuaryBatch.Result result = new SanctuaryBatch(service, out, errors).run(new StringReader(script));
+
+    assertEquals(12, result.getCommands());
+    assertEquals(5, result.getFailures());
+    assertTrue(result.getElapsedNanos() > 0);
+    assertTrue(result.toString().startsWith("Ran 12 commands (5 failed) in "));
+    String[] failures = errors.toString().split("\n");
+    assertEquals(5, failures.length);
+    assertEquals("line 5: Monkey with this name is already registered.", failures[0]);
+    assertTrue(failures[1].startsWith("line 6: "));
+    assertTrue(failures[2].startsWith("line 7: "));
+    assertEquals("line 13: Unknown command: fly", failures[3]);
+    assertTrue(failures[4].startsWith("line 14: "));
+
+    assertEquals(Status.ENCLOSURE, sanctuary.findByName("Coco").getStatus());
+    assertEquals(Status.ENCLOSURE, sanctuary.findByName("Kiki").getStatus());
+    assertNull(sanctuary.findByName("Bobo"));
+    assertEquals(sanctuary.monkeysInOneEnclosure(Species.DRILL) + sanctuary.allMonkeysList(), out.toString());
+  }
+
+  /**
+   * Test that verifies a batch script longer than the pipeline's queue runs in order
+   */
+  @Test
+  public void testLongBatchScript() throws Exception {
+    StringBuilder script = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      script.append("register,Monkey").append(i).append(",TAMARIN,Female,Small,1.5,2,INSECTS,yes\n");
+      script.append("move,Monkey").append(i).append('\n');
+    }
+    SanctuaryBatch.Result result = new SanctuaryBatch(new SanctuaryService(new Sanctuary(1, 0)),
+        new StringBuilder(), new StringBuilder()).run(new StringReader(script.toString()));
+    assertEquals(10000, result.getCommands());
+    assertEquals(0, result.getFailures());
+    assertTrue(result.getCommandsPerSecond() > 0);
+  }
+}
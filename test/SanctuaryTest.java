@@ -1,11 +1,46 @@
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.event.TableModelEvent;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import sanctuary.ConcurrentSanctuary;
+import sanctuary.Enclosures;
 import sanctuary.Food;
+import sanctuary.FoodSummary;
+import sanctuary.Isolation;
+import sanctuary.IsolationComboBoxModel;
+import sanctuary.JournaledSanctuary;
 import sanctuary.Monkey;
+import sanctuary.MonkeyCsvReader;
+import sanctuary.MonkeyStore;
+import sanctuary.MonkeyTableModel;
 import sanctuary.Sanctuary;
+import sanctuary.SanctuaryEvent;
+import sanctuary.SanctuaryJournal;
+import sanctuary.SanctuarySnapshot;
+import sanctuary.Sex;
+import sanctuary.Size;
 import sanctuary.Species;
 import sanctuary.Status;
 
@@ -32,8 +67,8 @@ class SanctuaryTest {
     assertNotNull(monkey1);
     assertEquals("MonkeyA", monkey1.getName());
     assertEquals(Species.DRILL, monkey1.getSpecies());
-    assertEquals("M", monkey1.getSex());
-    assertEquals("Medium", monkey1.getSize());
+    assertEquals(Sex.MALE, monkey1.getSex());
+    assertEquals(Size.MEDIUM, monkey1.getSize());
     assertEquals(50.0, monkey1.getWeight());
     assertEquals(2, monkey1.getAge());
     assertEquals(Food.FRUITS, monkey1.getFavoriteFood());
@@ -193,4 +228,825 @@ class SanctuaryTest {
     assertTrue(indexOfMonkey3 < indexOfMonkey4);
     assertTrue(indexOfMonkey4 < indexOfMonkey5);
   }
+
+  /**
+   * Test that verifies registered monkeys can be looked up by name
+   */
+  @Test
+  public void testFindByName() {
+    sanctuary.addToIsolation(monkey2);
+    sanctuary.addToIsolation(monkey4);
+    sanctuary.moveToEnclosure(monkey4);
+
+    assertTrue(sanctuary.containsName("MonkeyB"));
+    assertTrue(sanctuary.containsName("MonkeyD"));
+    assertFalse(sanctuary.containsName("MonkeyA"));
+    assertSame(monkey4, sanctuary.findByName("MonkeyD"));
+    assertNull(sanctuary.findByName("MonkeyA"));
+
+    Monkey sameName = new Monkey("MonkeyB", Species.HOWLER, "M", "Small", 20.0, 3, Food.NUTS, true);
+    assertThrows(IllegalArgumentException.class, () -> sanctuary.addToIsolation(sameName));
+  }
+
+  /**
+   * Test that verifies a monkey is routed to its species enclosure and cannot be moved twice
+   */
+  @Test
+  public void testMoveToSpeciesEnclosure() {
+    sanctuary.addToIsolation(monkey4);
+    sanctuary.moveToEnclosure(monkey4);
+
+    assertTrue(sanctuary.getEnclosure(Species.SAKI).getMonkeys().contains(monkey4));
+    assertTrue(sanctuary.getIsolation().getMonkeys().isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> sanctuary.moveToEnclosure(monkey4));
+    assertThrows(IllegalArgumentException.class, () -> sanctuary.moveToEnclosure(null));
+  }
+
+  /**
+   * Test that verifies an enclosure keeps its monkeys ordered by name as they are added
+   */
+  @Test
+  public void testEnclosureKeepsNameOrder() {
+    Monkey zed = new Monkey("Zed", Species.SAKI, "M", "Small", 20.0, 3, Food.NUTS, true);
+    Monkey abe = new Monkey("Abe", Species.SAKI, "F", "Small", 21.0, 4, Food.SEEDS, true);
+    sanctuary.addToIsolation(zed);
+    sanctuary.addToIsolation(monkey4);
+    sanctuary.addToIsolation(abe);
+    sanctuary.moveToEnclosure(zed);
+    sanctuary.moveToEnclosure(monkey4);
+    sanctuary.moveToEnclosure(abe);
+
+    Enclosures enclosure = sanctuary.getEnclosure(Species.SAKI);
+    assertEquals("Abe", enclosure.getMonkeys().get(0).getName());
+    assertEquals("MonkeyD", enclosure.getMonkeys().get(1).getName());
+    assertEquals("Zed", enclosure.getMonkeys().get(2).getName());
+    assertEquals(enclosure.listMonkeys(), enclosure.listMonkeys());
+    assertThrows(UnsupportedOperationException.class, () -> enclosure.getMonkeys().add(monkey2));
+  }
+
+  /**
+   * Test that verifies repeated listings are served from the report cache until the sanctuary changes
+   */
+  @Test
+  public void testReportCache() {
+    sanctuary.addToIsolation(monkey2);
+    sanctuary.moveToEnclosure(monkey2);
+
+    String first = sanctuary.allMonkeysList();
+    long misses = sanctuary.getReportCacheMisses();
+    assertSame(first, sanctuary.allMonkeysList());
+    assertEquals(misses, sanctuary.getReportCacheMisses());
+    assertTrue(sanctuary.getReportCacheHits() > 0);
+
+    sanctuary.addToIsolation(monkey4);
+    String second = sanctuary.allMonkeysList();
+    assertTrue(second.contains("Name: MonkeyD"));
+    assertTrue(sanctuary.getReportCacheMisses() > misses);
+
+    String enclosures = sanctuary.monkeysInAllEnclosures();
+    sanctuary.moveToEnclosure(monkey4);
+    assertFalse(enclosures.contains("Name: MonkeyD"));
+    assertTrue(sanctuary.monkeysInAllEnclosures().contains("Name: MonkeyD"));
+  }
+
+  /**
+   * Test that verifies a batch is added to isolation all-or-nothing
+   */
+  @Test
+  public void testAddAllToIsolation() {
+    sanctuary.addToIsolation(monkey1);
+    Monkey duplicate = new Monkey("MonkeyA", Species.SAKI, "F", "Small", 20.0, 3, Food.NUTS, true);
+    assertThrows(IllegalArgumentException.class,
+            () -> sanctuary.addAllToIsolation(List.of(monkey2, monkey3, duplicate)));
+    assertFalse(sanctuary.containsName("MonkeyB"));
+    assertEquals(1, sanctuary.getIsolation().getMonkeys().size());
+
+    sanctuary.addAllToIsolation(List.of(monkey2, monkey3));
+    assertEquals(Status.ISOLATION, monkey3.getStatus());
+    assertEquals(3, sanctuary.getIsolation().getMonkeys().size());
+
+    List<Monkey> tooMany = new ArrayList<>();
+    for (int i = 0; i < 18; i++) {
+      tooMany.add(new Monkey("Batch" + i, Species.DRILL, "M", "Medium", 50.0, 2, Food.FRUITS, false));
+    }
+    assertThrows(IllegalArgumentException.class, () -> sanctuary.addAllToIsolation(tooMany));
+    assertEquals(3, sanctuary.getIsolation().getMonkeys().size());
+  }
+
+  /**
+   * Test that verifies monkeys are parsed from CSV rows and bad rows are reported
+   */
+  @Test
+  public void testCsvReader() throws IOException {
+    String csv = "name,species,sex,size,weight,age,food,healthy\n"
+            + "Kiki,SAKI,Female,Small,12.5,4,NUTS,yes\n"
+            + "\n"
+            + "Bad,UNKNOWN,Male,Small,1,1,NUTS,no\n"
+            + "Short,DRILL,Male\n"
+            + "Bobo,howler,Male,Large,40,9,leaves,no\n";
+    List<Monkey> parsed = new ArrayList<>();
+    List<Long> errorLines = new ArrayList<>();
+    MonkeyCsvReader reader = new MonkeyCsvReader(new StringReader(csv), ',');
+    long count = reader.readAll(parsed::add, (line, row, message) -> errorLines.add(line));
+
+    assertEquals(2, count);
+    assertEquals(List.of(4L, 5L), errorLines);
+    assertEquals("Kiki", parsed.get(0).getName());
+    assertTrue(parsed.get(0).isHealthy());
+    assertEquals(Species.HOWLER, parsed.get(1).getSpecies());
+    assertEquals(Food.LEAVES, parsed.get(1).getFavoriteFood());
+    assertFalse(parsed.get(1).isHealthy());
+  }
+
+  /**
+   * Test that verifies a first row is only skipped when it names every column and unknown health values are rejected
+   */
+  @Test
+  public void testCsvHeaderAndHealthValues() throws IOException {
+    String csv = "Nameless,SAKI,Female,Small,12.5,4,NUTS,TRUE\n"
+            + "Kiki,SAKI,Female,Small,12.5,4,NUTS,ye\n"
+            + "Bobo,howler,Male,Large,40,9,leaves,False\n";
+    List<Monkey> parsed = new ArrayList<>();
+    List<String> errors = new ArrayList<>();
+    long count = new MonkeyCsvReader(new StringReader(csv), ',')
+            .readAll(parsed::add, (line, row, message) -> errors.add(line + ": " + message));
+
+    assertEquals(2, count);
+    assertEquals("Nameless", parsed.get(0).getName());
+    assertTrue(parsed.get(0).isHealthy());
+    assertFalse(parsed.get(1).isHealthy());
+    assertEquals(1, errors.size());
+    assertTrue(errors.get(0).startsWith("2: Invalid health: ye"));
+
+    String tsv = "Name\tSpecies\tSex\tSize\tWeight\tAge\tFavorite Food\tIs Healthy\n"
+            + "Kiki\tSAKI\tFemale\tSmall\t12.5\t4\tNUTS\tno\n";
+    parsed.clear();
+    assertEquals(1, new MonkeyCsvReader(new StringReader(tsv), '\t').readAll(parsed::add,
+            (line, row, message) -> fail(message)));
+    assertEquals("Kiki", parsed.get(0).getName());
+  }
+
+  /**
+   * Test that verifies rows with a weight that is not a finite number are rejected
+   */
+  @Test
+  public void testCsvRejectsNonFiniteWeights() throws IOException {
+    String csv = "Kiki,SAKI,Female,Small,NaN,4,NUTS,yes\n"
+            + "Bobo,SAKI,Male,Small,Infinity,4,NUTS,yes\n"
+            + "Zaza,SAKI,Male,Small,-Infinity,4,NUTS,yes\n"
+            + "Momo,SAKI,Female,Small,1e400,4,NUTS,yes\n"
+            + "Lulu,SAKI,Female,Small,7.5,4,NUTS,yes\n";
+    List<Monkey> parsed = new ArrayList<>();
+    List<String> errors = new ArrayList<>();
+    try (MonkeyCsvReader reader = new MonkeyCsvReader(new StringReader(csv), ',')) {
+      assertEquals(1, reader.readAll(parsed::add, (line, row, message) -> errors.add(line + ": " + message)));
+    }
+    assertEquals(List.of("1: Invalid weight: NaN", "2: Invalid weight: Infinity", "3: Invalid weight: -Infinity",
+            "4: Invalid weight: 1e400"), errors);
+    assertEquals("Lulu", parsed.get(0).getName());
+    assertThrows(IllegalArgumentException.class,
+        () -> new Monkey("Kiki", Species.SAKI, Sex.FEMALE, Size.SMALL, Double.NaN, 4, Food.NUTS, true));
+  }
+
+  /**
+   * Test that verifies a snapshot restores every monkey to its housing
+   */
+  @Test
+  public void testSnapshotRoundTrip() throws IOException {
+    sanctuary.addToIsolation(monkey1);
+    sanctuary.addToIsolation(monkey2);
+    sanctuary.addToIsolation(monkey4);
+    sanctuary.moveToEnclosure(monkey2);
+    sanctuary.moveToEnclosure(monkey4);
+
+    Path file = Files.createTempFile("sanctuary", ".snapshot");
+    try {
+      SanctuarySnapshot.write(sanctuary, file);
+      Sanctuary restored = SanctuarySnapshot.read(file);
+
+      assertEquals(sanctuary.allMonkeysList(), restored.allMonkeysList());
+      Monkey drill = restored.findByName("MonkeyA");
+      assertEquals(Status.ISOLATION, drill.getStatus());
+      assertFalse(drill.isHealthy());
+      assertEquals(50.0, drill.getWeight());
+      assertEquals(Size.MEDIUM, drill.getSize());
+      assertTrue(restored.getEnclosure(Species.SAKI).getMonkeys().contains(restored.findByName("MonkeyD")));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Test that verifies journaled mutations survive a restart and a torn journal tail is discarded
+   */
+  @Test
+  public void testJournalRecovery() throws IOException {
+    Path directory = Files.createTempDirectory("sanctuary");
+    Path snapshot = directory.resolve("sanctuary.snapshot");
+    Path journal = directory.resolve("sanctuary.journal");
+    try {
+      JournaledSanctuary first = new JournaledSanctuary(snapshot, journal);
+      first.addToIsolation(monkey1);
+      first.addToIsolation(monkey2);
+      first.healMonkey(monkey1);
+      first.moveToEnclosure(monkey1);
+      first.flush();
+      long intact = Files.size(journal);
+      Files.write(journal, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+      Sanctuary replayed = new Sanctuary();
+      assertEquals(4, SanctuaryJournal.replay(journal, replayed));
+      assertEquals(intact, Files.size(journal));
+      Monkey drill = replayed.findByName("MonkeyA");
+      assertTrue(drill.isHealthy());
+      assertEquals(Status.ENCLOSURE, drill.getStatus());
+      assertEquals(Status.ISOLATION, replayed.findByName("MonkeyB").getStatus());
+
+      first.close();
+      assertEquals(0, Files.size(journal));
+      JournaledSanctuary second = new JournaledSanctuary(snapshot, journal);
+      assertEquals(first.allMonkeysList(), second.allMonkeysList());
+      second.close();
+    } finally {
+      Files.deleteIfExists(snapshot);
+      Files.deleteIfExists(journal);
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  /**
+   * Test that verifies changes are journaled before they are made, and rejected changes replay cleanly
+   */
+  @Test
+  public void testJournalWritesAhead() throws IOException {
+    Path directory = Files.createTempDirectory("sanctuary");
+    Path snapshot = directory.resolve("sanctuary.snapshot");
+    Path journal = directory.resolve("sanctuary.journal");
+    try {
+      JournaledSanctuary first = new JournaledSanctuary(snapshot, journal, 1, 0);
+      first.addToIsolation(monkey1);
+      assertThrows(IllegalArgumentException.class, () -> first.moveToEnclosure(monkey1));
+      assertThrows(IllegalArgumentException.class, () -> first.addToIsolation(monkey2));
+      assertThrows(IllegalArgumentException.class, () -> first.healMonkey(null));
+      assertThrows(IllegalArgumentException.class, () -> first.addAllToIsolation(List.of(monkey3)));
+      first.healMonkey(monkey1);
+      first.moveToEnclosure(monkey1);
+      first.flush();
+
+      Sanctuary replayed = new Sanctuary(1, 0);
+      assertEquals(5, SanctuaryJournal.replay(journal, replayed));
+      assertEquals(Status.ENCLOSURE, replayed.findByName("MonkeyA").getStatus());
+      assertNull(replayed.findByName("MonkeyB"));
+      assertNull(replayed.findByName("MonkeyC"));
+
+      first.close();
+      assertThrows(IllegalStateException.class, () -> first.addToIsolation(monkey4));
+      assertFalse(first.containsName("MonkeyD"));
+      assertTrue(first.getIsolation().getMonkeys().isEmpty());
+    } finally {
+      Files.deleteIfExists(snapshot);
+      Files.deleteIfExists(journal);
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  /**
+   * Test that verifies a journal left behind by a compaction that stopped before truncating it is not replayed again
+   */
+  @Test
+  public void testJournalCoveredBySnapshot() throws IOException {
+    Path directory = Files.createTempDirectory("sanctuary");
+    Path snapshot = directory.resolve("sanctuary.snapshot");
+    Path journal = directory.resolve("sanctuary.journal");
+    try {
+      JournaledSanctuary first = new JournaledSanctuary(snapshot, journal, 1, 0);
+      first.addToIsolation(monkey1);
+      assertThrows(IllegalArgumentException.class, () -> first.addToIsolation(monkey2));
+      first.healMonkey(monkey1);
+      first.moveToEnclosure(monkey1);
+      first.flush();
+      byte[] uncompacted = Files.readAllBytes(journal);
+      first.close();
+      Files.write(journal, uncompacted);
+
+      JournaledSanctuary second = new JournaledSanctuary(snapshot, journal, 1, 0);
+      assertFalse(second.containsName("MonkeyB"));
+      assertEquals(Status.ENCLOSURE, second.findByName("MonkeyA").getStatus());
+      assertTrue(second.getIsolation().getMonkeys().isEmpty());
+      second.addToIsolation(monkey2);
+      second.close();
+
+      JournaledSanctuary third = new JournaledSanctuary(snapshot, journal, 1, 0);
+      assertEquals(Status.ISOLATION, third.findByName("MonkeyB").getStatus());
+      assertEquals(Status.ENCLOSURE, third.findByName("MonkeyA").getStatus());
+      third.close();
+    } finally {
+      Files.deleteIfExists(snapshot);
+      Files.deleteIfExists(journal);
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  /**
+   * Test that verifies the table model reads rows directly from the housings
+   */
+  @Test
+  public void testMonkeyTableModel() {
+    sanctuary.addToIsolation(monkey1);
+    sanctuary.addToIsolation(monkey2);
+    sanctuary.moveToEnclosure(monkey2);
+    MonkeyTableModel table = new MonkeyTableModel(sanctuary, new ReentrantLock());
+
+    assertEquals(2, table.getRowCount());
+    assertEquals("MonkeyA", table.getValueAt(0, 0));
+    assertEquals(Status.ISOLATION, table.getValueAt(0, 8));
+    assertEquals("MonkeyB", table.getValueAt(1, 0));
+    assertEquals(Species.GUEREZA, table.getValueAt(1, 1));
+    assertEquals(Food.EGGS, table.getValueAt(1, 6));
+
+    List<String> events = new ArrayList<>();
+    table.addTableModelListener(e -> events.add(e.getType() + " " + e.getFirstRow() + "-" + e.getLastRow()));
+    sanctuary.addToIsolation(monkey3);
+    table.refresh();
+    assertEquals(3, table.getRowCount());
+    assertEquals(List.of(TableModelEvent.INSERT + " 2-2", TableModelEvent.UPDATE + " 0-1"), events);
+    assertSame(monkey3, sanctuary.monkeyAt(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> sanctuary.monkeyAt(3));
+  }
+
+  /**
+   * Test that verifies a sorted table is sorted again when a refresh only updates rows
+   */
+  @Test
+  public void testMonkeyTableSortsOnRefresh() {
+    sanctuary.addToIsolation(monkey1);
+    sanctuary.addToIsolation(monkey2);
+    MonkeyTableModel table = new MonkeyTableModel(sanctuary, new ReentrantLock());
+    JTable view = new JTable(table);
+    view.setRowSorter(table.newRowSorter());
+    view.getRowSorter().setSortKeys(List.of(new RowSorter.SortKey(7, SortOrder.DESCENDING)));
+    assertEquals("MonkeyB", view.getValueAt(0, 0));
+
+    sanctuary.healMonkey(monkey1);
+    table.refresh();
+    assertEquals("MonkeyA", view.getValueAt(0, 0));
+  }
+
+  /**
+   * Test that verifies the isolation combo box model fires only ranged events for the changed positions
+   */
+  @Test
+  public void testIsolationComboBoxModel() throws Exception {
+    List<String> events = new ArrayList<>();
+    SwingUtilities.invokeAndWait(() -> {
+      sanctuary.addToIsolation(monkey1);
+      IsolationComboBoxModel model = new IsolationComboBoxModel(sanctuary.getIsolation(), new ReentrantLock());
+      model.addListDataListener(new ListDataListener() {
+        public void intervalAdded(ListDataEvent e) { events.add("added " + e.getIndex0()); }
+        public void intervalRemoved(ListDataEvent e) { events.add("removed " + e.getIndex0()); }
+        public void contentsChanged(ListDataEvent e) { events.add("changed " + e.getIndex0()); }
+      });
+      sanctuary.addToIsolation(monkey2);
+      sanctuary.addToIsolation(monkey4);
+      model.setSelectedItem(monkey2);
+      sanctuary.moveToEnclosure(monkey2);
+
+      assertEquals(2, model.getSize());
+      assertSame(monkey1, model.getElementAt(0));
+      assertSame(monkey4, model.getElementAt(1));
+      assertNull(model.getSelectedItem());
+    });
+    assertEquals(List.of("added 1", "added 2", "changed -1", "changed 1", "removed 2", "changed -1"), events);
+  }
+
+  /**
+   * Test that verifies changes are published on the event bus and batches are coalesced
+   */
+  @Test
+  public void testEventBus() {
+    List<List<SanctuaryEvent>> deliveries = new ArrayList<>();
+    sanctuary.getEventBus().subscribe(deliveries::add);
+
+    sanctuary.addToIsolation(monkey1);
+    sanctuary.healMonkey(monkey1);
+    sanctuary.moveToEnclosure(monkey1);
+    assertEquals(3, deliveries.size());
+    assertEquals(SanctuaryEvent.Type.REGISTERED, deliveries.get(0).get(0).getType());
+    assertEquals(SanctuaryEvent.Type.HEALED, deliveries.get(1).get(0).getType());
+    assertEquals(SanctuaryEvent.Type.MOVED, deliveries.get(2).get(0).getType());
+    assertSame(monkey1, deliveries.get(2).get(0).getMonkey());
+
+    deliveries.clear();
+    sanctuary.getEventBus().batch(() -> {
+      sanctuary.addAllToIsolation(List.of(monkey2, monkey3));
+      sanctuary.healMonkey(monkey3);
+      sanctuary.healMonkey(monkey3);
+    });
+    assertEquals(1, deliveries.size());
+    assertEquals(List.of(new SanctuaryEvent(SanctuaryEvent.Type.REGISTERED, monkey2),
+            new SanctuaryEvent(SanctuaryEvent.Type.REGISTERED, monkey3),
+            new SanctuaryEvent(SanctuaryEvent.Type.HEALED, monkey3)), deliveries.get(0));
+  }
+
+  /**
+   * Test that verifies isolation cages are numbered slots, resizable, with a bounded waiting queue
+   */
+  @Test
+  public void testIsolationCagesAndWaitingQueue() {
+    Sanctuary small = new Sanctuary(2, 1);
+    small.addToIsolation(monkey2);
+    small.addToIsolation(monkey4);
+    small.addToIsolation(monkey5);
+    assertThrows(IllegalArgumentException.class, () -> small.addToIsolation(monkey21));
+
+    Isolation isolation = small.getIsolation();
+    assertEquals(0, isolation.getCage(monkey2));
+    assertEquals(1, isolation.getCage(monkey4));
+    assertEquals(-1, isolation.getCage(monkey5));
+    assertTrue(isolation.getWaitingMonkeys().contains(monkey5));
+    assertTrue(small.containsName("MonkeyE"));
+    assertThrows(IllegalArgumentException.class, () -> small.moveToEnclosure(monkey5));
+
+    small.moveToEnclosure(monkey2);
+    assertEquals(0, isolation.getCage(monkey5));
+    assertEquals(Status.ISOLATION, monkey5.getStatus());
+    assertTrue(isolation.getWaitingMonkeys().isEmpty());
+
+    small.addToIsolation(monkey21);
+    assertThrows(IllegalArgumentException.class, () -> small.setIsolationCapacity(1));
+    small.setIsolationCapacity(3);
+    assertEquals(2, isolation.getCage(monkey21));
+    assertEquals(3, isolation.getMonkeys().size());
+  }
+
+  /**
+   * Test that verifies the columnar store keeps every attribute of a monkey
+   */
+  @Test
+  public void testMonkeyStore() {
+    sanctuary.addToIsolation(monkey2);
+    MonkeyStore store = new MonkeyStore(1);
+    int first = store.add(monkey2);
+    int second = store.add(monkey3);
+    assertEquals(0, first);
+    assertEquals(1, second);
+    assertEquals(2, store.size());
+    assertEquals(monkey3.getName(), store.getName(second));
+    assertEquals(monkey3.getSpecies(), store.getSpecies(second));
+    assertEquals(monkey3.getSex(), store.getSex(second));
+    assertEquals(monkey3.getSize(), store.getSize(second));
+    assertEquals(monkey3.getWeight(), store.getWeight(second), 0.001);
+    assertEquals(monkey3.getAge(), store.getAge(second));
+    assertEquals(Status.ISOLATION, store.getStatus(first));
+    assertNull(store.getStatus(second));
+    assertEquals(monkey3.isHealthy(), store.isHealthy(second));
+
+    store.setHealthy(second, false);
+    store.setHealthy(first, true);
+    assertEquals(1, store.countHealthy());
+
+    MonkeyStore.Row row = store.row();
+    int rows = 0;
+    while (row.next()) {
+      assertEquals(store.getName(row.getIndex()), row.getName());
+      rows++;
+    }
+    assertEquals(2, rows);
+
+    Monkey copy = store.toMonkey(first);
+    assertEquals(monkey2.getName(), copy.getName());
+    assertEquals(Status.ISOLATION, copy.getStatus());
+    assertThrows(IndexOutOfBoundsException.class, () -> store.getName(2));
+  }
+
+  /**
+   * Test that verifies a census file is loaded into the columnar store and counted by column
+   */
+  @Test
+  public void testMonkeyStoreLoad() throws IOException {
+    Path census = Files.createTempFile("census", ".tsv");
+    try {
+      Files.write(census, List.of("name\tspecies\tsex\tsize\tweight\tage\tfood\thealthy",
+              "Kiki\tsaki\tF\tSmall\t3.5\t2\tfruits\tyes",
+              "Bobo\tSAKI\tM\tMedium\t5\t12\tseeds\tno",
+              "Zaza\thowler\tM\tLarge\theavy\t7\tleaves\tno",
+              "Momo\thowler\tF\tLarge\t9\t7\tleaves\ttrue"));
+      List<Long> rejected = new ArrayList<>();
+      MonkeyStore store = MonkeyStore.load(census, (line, row, message) -> rejected.add(line));
+      assertEquals(List.of(4L), rejected);
+      assertEquals(3, store.size());
+      assertEquals(2, store.countHealthy());
+      assertEquals(2, store.countSpecies(Species.SAKI));
+      assertEquals(1, store.countSpecies(Species.HOWLER));
+      assertEquals(0, store.countSpecies(Species.DRILL));
+      assertEquals("Momo", store.getName(2));
+      assertNull(store.getStatus(2));
+    } finally {
+      Files.deleteIfExists(census);
+    }
+  }
+
+  /**
+   * Test that verifies sex and size text is parsed into the enums
+   */
+  @Test
+  public void testParseSexAndSize() {
+    assertEquals(Sex.MALE, Sex.parse("M"));
+    assertEquals(Sex.FEMALE, Sex.parse("female"));
+    assertEquals(Sex.FEMALE, Sex.parse("FEMALE"));
+    assertEquals(Size.LARGE, Size.parse("Large"));
+    assertEquals(Size.SMALL, Size.parse(" small "));
+    assertEquals("Male", Sex.MALE.toString());
+    assertThrows(IllegalArgumentException.class, () -> Sex.parse("X"));
+    assertThrows(IllegalArgumentException.class, () -> Size.parse("Huge"));
+    assertThrows(IllegalArgumentException.class,
+            () -> new Monkey("Monkey1", Species.SAKI, "", "Small", 10.0, 1, Food.FRUITS, false));
+
+    Monkey monkey = new Monkey("Monkey1", Species.SAKI, Sex.FEMALE, Size.SMALL, 10.0, 1, Food.FRUITS, true);
+    sanctuary.addToIsolation(monkey);
+    sanctuary.moveToEnclosure(monkey);
+    assertTrue(sanctuary.monkeysInOneEnclosure(Species.SAKI).contains("Sex: Female"));
+  }
+
+  /**
+   * Test that verifies queries combine indexed conditions and follow moves and heals
+   */
+  @Test
+  public void testQuery() {
+    Monkey oldHowler = new Monkey("Howie", Species.HOWLER, Sex.MALE, Size.LARGE, 60.0, 12, Food.INSECTS, false);
+    Monkey youngHowler = new Monkey("Hank", Species.HOWLER, Sex.MALE, Size.SMALL, 20.0, 3, Food.INSECTS, false);
+    Sanctuary small = new Sanctuary(4, 2);
+    small.addAllToIsolation(List.of(monkey2, monkey3, monkey4, monkey21, oldHowler, youngHowler));
+
+    assertEquals(List.of(oldHowler), small.query().species(Species.HOWLER).healthy(false)
+            .olderThan(10).favoriteFood(Food.INSECTS).list());
+    assertEquals(3, small.query().species(Species.HOWLER).count());
+    assertEquals(2, small.query().status(Status.WAITING).count());
+    assertEquals(List.of(monkey2, monkey21), small.query().weightBetween(20.0, 50.0).healthy(true).list());
+    assertEquals(0, small.query().species(Species.DRILL).ageBetween(0, 100).count());
+    assertEquals(1, small.query().sex(Sex.MALE).size(Size.LARGE).where(m -> m.getWeight() < 80).count());
+    assertEquals(170.0, small.query().favoriteFood(Food.INSECTS).totalWeight(), 0.001);
+    assertEquals(86.0, small.query().totalWeightByFood().get(Food.TREESAP), 0.001);
+
+    small.moveToEnclosure(monkey4);
+    assertEquals(List.of(monkey4), small.query().status(Status.ENCLOSURE).list());
+    assertEquals(1, small.query().status(Status.WAITING).count());
+
+    small.healMonkey(oldHowler);
+    small.moveToEnclosure(oldHowler);
+    assertEquals(List.of(oldHowler), small.query().healthy(true).species(Species.HOWLER).list());
+    assertEquals(0, small.query().status(Status.WAITING).count());
+    assertEquals(6, small.query().count());
+  }
+
+  /**
+   * Test that verifies the food summary follows registrations, admissions and moves
+   */
+  @Test
+  public void testFoodSummary() {
+    Monkey nutEater = new Monkey("Nutty", Species.SAKI, Sex.FEMALE, Size.SMALL, 12.5, 3, Food.TREESAP, true);
+    Sanctuary small = new Sanctuary(2, 2);
+    small.addToIsolation(monkey4);
+    small.addToIsolation(monkey5);
+    small.addToIsolation(nutEater);
+
+    FoodSummary summary = small.foodSummary();
+    assertEquals(2, summary.getCount(Food.TREESAP, Status.ISOLATION));
+    assertEquals(1, summary.getCount(Food.TREESAP, Status.WAITING));
+    assertEquals(168.5, summary.getWeight(Food.TREESAP), 0.001);
+    assertEquals(0, summary.getCount(Food.EGGS));
+
+    small.moveToEnclosure(monkey4);
+    summary = small.foodSummary();
+    assertEquals(2, summary.getCount(Food.TREESAP, Status.ISOLATION));
+    assertEquals(0, summary.getCount(Food.TREESAP, Status.WAITING));
+    assertEquals(1, summary.getCount(Food.TREESAP, Status.ENCLOSURE));
+    assertEquals(86.0, summary.getWeight(Food.TREESAP, Status.ENCLOSURE), 0.001);
+    assertEquals(82.5, summary.getWeight(Food.TREESAP, Status.ISOLATION), 0.001);
+    assertEquals(0.0, summary.getWeight(Food.TREESAP, Status.WAITING));
+
+    FoodSummary saki = small.foodSummary(Species.SAKI);
+    assertEquals(1, saki.getCount(Food.TREESAP, Status.ENCLOSURE));
+    assertEquals(0, saki.getCount(Food.TREESAP, Status.ISOLATION));
+    assertEquals(0, small.foodSummary(Species.SQUIRREL).getCount(Food.TREESAP));
+    assertTrue(summary.toString().contains("TREESAP, 2, 1, 0, 168.50"));
+  }
+
+  /**
+   * Test that verifies parallel listings and scans match the sequential ones
+   */
+  @Test
+  public void testParallelScans() {
+    Sanctuary large = new Sanctuary(20000, 0);
+    List<Monkey> monkeys = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      monkeys.add(new Monkey("Monkey" + (i * 7919 % 20000), Species.values()[i % Species.values().length],
+              Sex.values()[i % 2], Size.values()[i % 3], 10 + i % 40, i % 30, Food.values()[i % Food.values().length],
+              i % 5 != 0));
+    }
+    large.addAllToIsolation(monkeys);
+    for (Monkey monkey : monkeys) {
+      if (monkey.isHealthy() && monkey.getAge() % 2 == 0) {
+        large.moveToEnclosure(monkey);
+      }
+    }
+    large.setReportCacheEnabled(false);
+    large.setParallelism(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+    String all = large.allMonkeysList();
+    String enclosures = large.monkeysInAllEnclosures();
+    List<Monkey> unhealthy = large.scan(monkey -> !monkey.isHealthy());
+
+    large.setParallelism(new ForkJoinPool(4), 0);
+    assertEquals(all, large.allMonkeysList());
+    assertEquals(enclosures, large.monkeysInAllEnclosures());
+    assertEquals(unhealthy, large.scan(monkey -> !monkey.isHealthy()));
+    assertEquals(4000, unhealthy.size());
+
+    large.setReportCacheEnabled(true);
+    assertEquals(enclosures, large.monkeysInAllEnclosures());
+    assertEquals(enclosures, large.monkeysInAllEnclosures());
+    assertThrows(IllegalArgumentException.class, () -> large.setParallelism(null, 0));
+  }
+
+  /**
+   * Test that verifies the streaming writers produce the same listings as the string methods
+   */
+  @Test
+  public void testStreamingListings() throws IOException {
+    sanctuary.addToIsolation(monkey1);
+    sanctuary.addToIsolation(monkey2);
+    sanctuary.addToIsolation(monkey4);
+    sanctuary.addToIsolation(new Monkey("Zo\u00eb", Species.SAKI, Sex.FEMALE, Size.SMALL, 9.5, 2, Food.NUTS, true));
+    sanctuary.moveToEnclosure(monkey2);
+    sanctuary.moveToEnclosure(monkey4);
+
+    for (boolean cached : new boolean[] {false, true}) {
+      sanctuary.setReportCacheEnabled(cached);
+      StringBuilder one = new StringBuilder();
+      sanctuary.writeMonkeysInOneEnclosure(Species.SAKI, one);
+      assertEquals(sanctuary.monkeysInOneEnclosure(Species.SAKI), one.toString());
+      StringBuilder empty = new StringBuilder();
+      sanctuary.writeMonkeysInOneEnclosure(Species.DRILL, empty);
+      assertEquals(sanctuary.monkeysInOneEnclosure(Species.DRILL), empty.toString());
+      StringBuilder enclosures = new StringBuilder();
+      sanctuary.writeMonkeysInAllEnclosures(enclosures);
+      assertEquals(sanctuary.monkeysInAllEnclosures(), enclosures.toString());
+      StringBuilder all = new StringBuilder();
+      sanctuary.writeAllMonkeysList(all);
+      assertEquals(sanctuary.allMonkeysList(), all.toString());
+    }
+
+    Path file = Files.createTempFile("sanctuary", ".txt");
+    try {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        sanctuary.writeAllMonkeysList(channel);
+        assertTrue(channel.isOpen());
+      }
+      assertEquals(sanctuary.allMonkeysList(), Files.readString(file));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Test that verifies rows spanning several formatter buffers reach any kind of output intact
+   */
+  @Test
+  public void testRowsAcrossBuffers() throws IOException {
+    Sanctuary large = new Sanctuary(2000, 0);
+    for (int i = 0; i < 2000; i++) {
+      Monkey monkey = new Monkey("Monkey" + i, Species.TAMARIN, Sex.values()[i % 2], Size.SMALL, 5.0, 1,
+              Food.values()[i % Food.values().length], true);
+      large.addToIsolation(monkey);
+      if (i % 3 == 0) {
+        large.moveToEnclosure(monkey);
+      }
+    }
+    StringBuffer all = new StringBuffer();
+    large.writeAllMonkeysList(all);
+    assertEquals(large.allMonkeysList(), all.toString());
+    StringBuffer enclosure = new StringBuffer();
+    large.getEnclosure(Species.TAMARIN).writeMonkeys(enclosure);
+    assertEquals(large.getEnclosure(Species.TAMARIN).listMonkeys(), enclosure.toString());
+    assertEquals(667, enclosure.toString().split("\n").length);
+  }
+
+  /**
+   * Test that verifies weight and age ranges over many distinct and shared values
+   */
+  @Test
+  public void testWeightAndAgeRanges() {
+    Sanctuary large = new Sanctuary(3000, 0);
+    for (int i = 0; i < 3000; i++) {
+      large.addToIsolation(new Monkey("Monkey" + i, Species.SAKI, Sex.FEMALE, Size.SMALL,
+              i < 1000 ? 5.0 : 5.0 + i * 0.01, i % 30, Food.NUTS, true));
+    }
+    assertEquals(1000, large.query().weightBetween(5.0, 5.0).count());
+    assertEquals(1001, large.query().weightBetween(0.0, 15.0).count());
+    assertEquals(101, large.query().weightBetween(20.0, 21.0).count());
+    assertEquals(0, large.query().weightBetween(21.0, 20.0).count());
+    assertEquals(100, large.query().ageBetween(7, 7).count());
+    assertEquals(40, large.query().weightBetween(20.0, 21.0).ageBetween(0, 9).count());
+    assertEquals(3000, large.query().olderThan(-1).count());
+  }
+
+  /**
+   * Test that verifies capacities and waiting monkeys survive a snapshot and a journal replay
+   */
+  @Test
+  public void testCapacitiesArePersisted() throws IOException {
+    Path directory = Files.createTempDirectory("sanctuary");
+    Path snapshot = directory.resolve("sanctuary.snapshot");
+    Path journal = directory.resolve("sanctuary.journal");
+    try {
+      JournaledSanctuary first = new JournaledSanctuary(snapshot, journal);
+      first.setIsolationCapacity(25);
+      first.setWaitingCapacity(2);
+      for (int i = 0; i < 27; i++) {
+        first.addToIsolation(new Monkey("Monkey" + i, Species.SAKI, Sex.FEMALE, Size.SMALL, 4.0, 3, Food.NUTS, i != 26));
+      }
+      Monkey queued = first.findByName("Monkey26");
+      assertEquals(Status.WAITING, queued.getStatus());
+      assertEquals(2, first.query().status(Status.WAITING).count());
+      first.flush();
+
+      Sanctuary replayed = new Sanctuary();
+      SanctuaryJournal.replay(journal, replayed);
+      assertEquals(25, replayed.getIsolation().getCageCapacity());
+      assertEquals(2, replayed.getIsolation().getWaitingCapacity());
+      assertEquals(25, replayed.getIsolation().getMonkeys().size());
+      assertEquals(Status.WAITING, replayed.findByName("Monkey26").getStatus());
+
+      first.close();
+      Sanctuary restored = SanctuarySnapshot.read(snapshot);
+      assertEquals(25, restored.getIsolation().getCageCapacity());
+      assertEquals(2, restored.getIsolation().getWaitingCapacity());
+      assertEquals(List.of("Monkey25", "Monkey26"),
+              restored.getIsolation().getWaitingMonkeys().stream().map(Monkey::getName).toList());
+
+      MonkeyTableModel table = new MonkeyTableModel(restored, new ReentrantLock());
+      assertEquals(27, table.getRowCount());
+      assertEquals("Monkey26", table.getValueAt(26, 0));
+      assertEquals(Status.WAITING, table.getValueAt(26, 8));
+    } finally {
+      Files.deleteIfExists(snapshot);
+      Files.deleteIfExists(journal);
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  /**
+   * Test that verifies an unhealthy monkey can leave the waiting queue but not a cage
+   */
+  @Test
+  public void testRemoveUnhealthyWaitingMonkey() {
+    Isolation isolation = new Isolation(1, 1);
+    isolation.addMonkey(monkey1);
+    isolation.addMonkey(monkey3);
+    assertEquals(Status.WAITING, monkey3.getStatus());
+    isolation.removeMonkey(monkey3);
+    assertTrue(isolation.getWaitingMonkeys().isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> isolation.removeMonkey(monkey1));
+  }
+
+  /**
+   * Test that verifies monkeysByName merges isolation and the enclosures into one name-ordered sequence
+   */
+  @Test
+  public void testMonkeysByNameMergesHousings() {
+    assertFalse(sanctuary.monkeysByName().hasNext());
+
+    String[] isolated = {"Zora", "Abby", "Milo"};
+    String[] drills = {"Bea", "Nico", "Yuki", "Cleo"};
+    String[] sakis = {"Ada", "Zack", "Lulu"};
+    Sanctuary housings = new Sanctuary(10, 0);
+    ConcurrentSanctuary concurrent = new ConcurrentSanctuary(10, 0);
+    for (Sanctuary target : List.of(housings, concurrent)) {
+      for (String name : drills) {
+        target.addToIsolation(new Monkey(name, Species.DRILL, Sex.FEMALE, Size.SMALL, 10.0, 2, Food.NUTS, true));
+      }
+      for (String name : sakis) {
+        target.addToIsolation(new Monkey(name, Species.SAKI, Sex.MALE, Size.SMALL, 4.0, 3, Food.SEEDS, true));
+      }
+      for (Monkey monkey : target.getIsolation().getMonkeys().toArray(new Monkey[0])) {
+        target.moveToEnclosure(monkey);
+      }
+      for (String name : isolated) {
+        target.addToIsolation(new Monkey(name, Species.HOWLER, Sex.MALE, Size.LARGE, 40.0, 9, Food.LEAVES, false));
+      }
+    }
+    assertTrue(housings.getEnclosure(Species.HOWLER).getMonkeys().isEmpty());
+
+    List<String> expected = List.of("Abby", "Ada", "Bea", "Cleo", "Lulu", "Milo", "Nico", "Yuki", "Zack", "Zora");
+    for (Sanctuary target : List.of(housings, concurrent)) {
+      List<String> names = new ArrayList<>();
+      Iterator<Monkey> byName = target.monkeysByName();
+      while (byName.hasNext()) {
+        names.add(byName.next().getName());
+      }
+      assertEquals(expected, names);
+      assertEquals(target.size(), new HashSet<>(names).size());
+      assertThrows(NoSuchElementException.class, byName::next);
+    }
+  }
 }
\ No newline at end of file